@@ -2,6 +2,7 @@ package Controller;
 
 import Gateway.ScheduleStorage;
 import Presenter.AttendeePresenter;
+import Presenter.CalendarGenerator;
 import Presenter.PrintoutGenerator;
 import UseCase.EventManager;
 import UseCase.MessageManager;
@@ -9,6 +10,9 @@ import UseCase.RoomManager;
 import UseCase.UserManager;
 import Util.CancelThrowable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
 
 public class AttendeeController extends UserController {
@@ -50,7 +54,7 @@ public class AttendeeController extends UserController {
         } else if (menuChoice.equals("2")){
             choiceSeeMyEvents(presenter, mainUserName);
         } else if (menuChoice.equals("3")){
-            choiceSignUpEvents(mainUserName, presenter, userManager, eventManager, roomManager, input);
+            choiceSignUpEvents(mainUserName, presenter, userManager, eventManager, input);
             saveState(userManager, eventManager, roomManager, messageManager);
         } else if (menuChoice.equals("4")) {
             choiceCancelEvents(mainUserName, presenter, userManager, eventManager, input);
@@ -86,7 +90,7 @@ public class AttendeeController extends UserController {
      * @param input The Scanner involved in the action
      */
     protected void choiceSignUpEvents(String user, AttendeePresenter presenter, UserManager userM, EventManager eventM,
-                                      RoomManager roomM, Scanner input){
+                                      Scanner input){
         try {
             boolean validEvent;
             String[] signupEvent;
@@ -104,9 +108,10 @@ public class AttendeeController extends UserController {
                         && !checkIfEventVipOnly(presenter, signupEvent, eventM);
             } while (!validEvent);
 
-            signUpForEvents(user, signupEvent, userM, eventM, roomM);
+            String[] signedUpEvents = signUpForEvents(user, signupEvent, userM, eventM);
 
-            presenter.successfullySignedUp(signupEvent);
+            reportFullEvents(presenter, signupEvent, signedUpEvents);
+            presenter.successfullySignedUp(signedUpEvents);
         } catch (CancelThrowable ct) {
             presenter.returningToMenu();
         }
@@ -197,20 +202,35 @@ public class AttendeeController extends UserController {
     }
 
     /**
-     * Signs up user to the specified events
+     * Signs up user to the specified events which still have room
      * @param user The user to sign up to the events
      * @param events The list of event being signed up to
      * @param um The UseCase.UserManager
      * @param em The UseCase.EventManager
+     * @return The events the user is signed up for; the others filled up before the user could be signed up
      */
-    protected void signUpForEvents(String user, String[] events, UserManager um, EventManager em, RoomManager rm){
-        if (events.length == 1) {
-            em.addUserToEvent(user, events[0], rm);
-            um.addEvent(user, events[0]);
-        } else{
-            for(String event:events){
-                em.addUserToEvent(user, event, rm);
-                um.addEvent(user,event);
+    protected String[] signUpForEvents(String user, String[] events, UserManager um, EventManager em){
+        List<String> signedUpEvents = new ArrayList<>();
+        for(String event:events){
+            if (em.signUpForEvent(user, event, um)) {
+                signedUpEvents.add(event);
+            }
+        }
+        return signedUpEvents.toArray(new String[0]);
+    }
+
+    /**
+     * Tells the user about each event they could not be signed up for, since other users took the last seats in it
+     * after it was checked
+     * @param presenter The Presenter.AttendeePresenter involved in the action
+     * @param events The String array of event names the user asked to sign up to
+     * @param signedUpEvents The String array of event names the user was signed up to
+     */
+    protected void reportFullEvents(AttendeePresenter presenter, String[] events, String[] signedUpEvents){
+        List<String> signedUp = Arrays.asList(signedUpEvents);
+        for (String event : events) {
+            if (!signedUp.contains(event)) {
+                presenter.fullCapacity(event);
             }
         }
     }
@@ -223,14 +243,8 @@ public class AttendeeController extends UserController {
      * @param em The UseCase.EventManager
      */
     protected void cancelEnrolmentInEvents(String user, String[] events, UserManager um, EventManager em){
-        if (events.length == 1) {
-            em.removeUserFromEvent(user, events[0]);
-            um.removeEvent(user, events[0]);
-        } else{
-            for(String event:events){
-                em.removeUserFromEvent(user, event);
-                um.removeEvent(user, event);
-            }
+        for(String event:events){
+            em.cancelSignUp(user, event, um);
         }
     }
 
@@ -264,12 +278,19 @@ public class AttendeeController extends UserController {
             presenter.savingSchedule();
 
             PrintoutGenerator printoutGenerator = new PrintoutGenerator();
-            String codeStr = printoutGenerator.generateAttendeeSchedule(mainUsername, eventManager, userManager);
+            CalendarGenerator calendarGenerator = new CalendarGenerator();
 
             presenter.successfullySavedSchedule(outputPath);
 
             ScheduleStorage scheduleStorage = new ScheduleStorage();
-            scheduleStorage.saveSchedule(codeStr, outputPath);
+            if (outputPath.endsWith(".ics")) {
+                scheduleStorage.saveCalendar(out -> calendarGenerator.writeAttendeeCalendar(mainUsername, eventManager,
+                        userManager, out), outputPath);
+            }
+            else {
+                scheduleStorage.saveSchedule(out -> printoutGenerator.writeAttendeeSchedule(mainUsername, eventManager,
+                        userManager, out), outputPath);
+            }
         } catch (CancelThrowable ct) {
             presenter.returningToMenu();
         }
@@ -22,7 +22,7 @@ public class EventManagementHelper {
             EventType eventType = getEventType(scanner, presenter);
             int capacity = getCapacity(scanner, presenter);
             boolean isVip = getVip(scanner, presenter);
-            Date[] time = getStartAndEnd(scanner, presenter);
+            long[] time = getStartAndEnd(scanner, presenter);
 
             BoardType board = getBoard(scanner, presenter);
             SeatingType seatingArrangement = getSeatingArrangement(scanner, presenter);
@@ -40,7 +40,7 @@ public class EventManagementHelper {
 
                     partyBuilder.buildName(eventName);
                     partyBuilder.buildCapacity(capacity);
-                    partyBuilder.buildDateAndTime(time[0]);
+                    partyBuilder.buildStartTime(time[0]);
                     partyBuilder.buildIsVip(isVip);
                     partyBuilder.buildRoomCode(roomCode);
 
@@ -51,7 +51,7 @@ public class EventManagementHelper {
 
                     talkBuilder.buildName(eventName);
                     talkBuilder.buildCapacity(capacity);
-                    talkBuilder.buildDateAndTime(time[0]);
+                    talkBuilder.buildStartTime(time[0]);
                     talkBuilder.buildIsVip(isVip);
                     talkBuilder.buildRoomCode(roomCode);
 
@@ -67,7 +67,7 @@ public class EventManagementHelper {
 
                     discussionBuilder.buildName(eventName);
                     discussionBuilder.buildCapacity(capacity);
-                    discussionBuilder.buildDateAndTime(time[0]);
+                    discussionBuilder.buildStartTime(time[0]);
                     discussionBuilder.buildIsVip(isVip);
                     discussionBuilder.buildRoomCode(roomCode);
 
@@ -130,7 +130,7 @@ public class EventManagementHelper {
 
             eventName = checkPartyEvent(eventManager, scanner, presenter); //checks if an event is a party
 
-            if (eventManager.getTalks().contains(eventName)) {
+            if (eventManager.getEventType(eventName) == EventType.TALK) {
                 String speaker = eventManager.getTalkWithName(eventName).getSpeakerUsername();
                 presenter.notifyEventCanHaveOneSpeaker(speaker);
 
@@ -203,7 +203,7 @@ public class EventManagementHelper {
             }
 
             if(doesEventExist(eventName, eventManager, presenter)) {
-                if (eventManager.getParties().contains(eventName)) {
+                if (eventManager.getEventType(eventName) == EventType.PARTY) {
                     presenter.notifyEventCannotHaveSpeakers(eventName);
                     validEvent = false;
                 }
@@ -263,14 +263,9 @@ public class EventManagementHelper {
     }
 
     private boolean isSpeakerAvailable(String speakerName, String eventName, UserManager userManager, EventManager eventManager, EventManagementPresenter presenter) {
-        Date[] time = new Date[2];
+        long[] time = new long[2];
         time[0] = eventManager.getTimeOfEvent(eventName);
-
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(time[0]);
-        cal.add(Calendar.HOUR, 1);
-
-        time[1] = cal.getTime();
+        time[1] = time[0] + EventManager.EVENT_LENGTH;
 
         EventValidator eventValidator = new EventValidator();
         if(eventValidator.isSpeakerAvailable(speakerName, time, userManager)) {
@@ -302,7 +297,7 @@ public class EventManagementHelper {
         return true;
     }
 
-    private String getRoomCode(EventManager eventManager, RoomManager roomManager, EventValidator eventValidator, Scanner scanner, EventManagementPresenter presenter, Date[] time, BoardType board, SeatingType seatingArrangement, boolean projector, boolean speakerPhone, boolean canGetFood) throws CancelThrowable {
+    private String getRoomCode(EventManager eventManager, RoomManager roomManager, EventValidator eventValidator, Scanner scanner, EventManagementPresenter presenter, long[] time, BoardType board, SeatingType seatingArrangement, boolean projector, boolean speakerPhone, boolean canGetFood) throws CancelThrowable {
         Set<String> suggestedRooms;
         Set<String> availableRooms;
         String roomCode;
@@ -483,8 +478,8 @@ public class EventManagementHelper {
         return board;
     }
 
-    private Date[] getStartAndEnd(Scanner scanner, EventManagementPresenter presenter) throws CancelThrowable {
-        Date[] time = new Date[2];
+    private long[] getStartAndEnd(Scanner scanner, EventManagementPresenter presenter) throws CancelThrowable {
+        long[] time = new long[2];
         String dateString;
         boolean properDate = true;
 
@@ -498,12 +493,8 @@ public class EventManagementHelper {
                 }
 
                 SimpleDateFormat formatter = new SimpleDateFormat("dd-MMM-yyyy HH:mm:ss");
-                time[0] = formatter.parse(dateString);
-
-                Calendar c = Calendar.getInstance();         // need Calendar to add time, not supported in Date class
-                c.setTime(time[0]);                       // convert Date to Calendar
-                c.add(Calendar.HOUR, 1);
-                time[1] = c.getTime();                 // event lasts 1 hour so endTime is 1 hour after startTime
+                time[0] = formatter.parse(dateString).getTime();
+                time[1] = time[0] + EventManager.EVENT_LENGTH;   // event lasts 1 hour
 
                 properDate = true;
             } catch (ParseException parseException) {
@@ -626,7 +617,7 @@ public class EventManagementHelper {
         return eventName;
     }
 
-    private String getTalkSpeaker(Date[] time, Scanner scanner, UserManager userManager, EventManagementPresenter presenter) throws CancelThrowable {
+    private String getTalkSpeaker(long[] time, Scanner scanner, UserManager userManager, EventManagementPresenter presenter) throws CancelThrowable {
         boolean valid = true;
         String speaker;
 
@@ -647,7 +638,7 @@ public class EventManagementHelper {
         return speaker;
     }
 
-    private Collection<String> getDiscussionSpeakers(Date[] time, Scanner scanner, UserManager userManager, EventManagementPresenter presenter) throws CancelThrowable {
+    private Collection<String> getDiscussionSpeakers(long[] time, Scanner scanner, UserManager userManager, EventManagementPresenter presenter) throws CancelThrowable {
         boolean valid;
         String speakersString;
         String[] speakers;
@@ -677,7 +668,7 @@ public class EventManagementHelper {
     }
 
     private boolean isEventNameTaken(String eventName, EventManager eventManager, EventManagementPresenter presenter) {
-        if (eventManager.getEventNames().contains(eventName)) {
+        if (eventManager.hasEvent(eventName)) {
             presenter.notifyEventNameTaken();
             return true;
         }
@@ -685,14 +676,14 @@ public class EventManagementHelper {
     }
 
     private boolean doesRoomExist(String roomCode, RoomManager roomManager, EventManagementPresenter presenter) {
-        if (!roomManager.getRoomCodes().contains(roomCode)) {
+        if (!roomManager.hasRoom(roomCode)) {
             presenter.notifyRoomDoesNotExist(roomCode);
             return false;
         }
         return true;
     }
 
-    private boolean isRoomAvailable(String roomCode, Date[] time, EventValidator eventValidator, EventManager eventManager, RoomManager roomManager, EventManagementPresenter presenter) {
+    private boolean isRoomAvailable(String roomCode, long[] time, EventValidator eventValidator, EventManager eventManager, RoomManager roomManager, EventManagementPresenter presenter) {
         if(!doesRoomExist(roomCode, roomManager, presenter)) {
             return false;
         }
@@ -715,7 +706,7 @@ public class EventManagementHelper {
         return false;
     }
 
-    private boolean isSpeakerAvailable(String speakerName, Date[] time, EventValidator eventValidator, UserManager userManager, EventManagementPresenter presenter) {
+    private boolean isSpeakerAvailable(String speakerName, long[] time, EventValidator eventValidator, UserManager userManager, EventManagementPresenter presenter) {
         if(!doesSpeakerExist(speakerName, userManager, presenter)) {
             return false;
         }
@@ -742,17 +733,17 @@ public class EventManagementHelper {
 
         //attendees no longer attend this event
         for(String user : eventManager.getEventWithName(eventName).getAttendees()) {
-            userManager.getUser(user).removeEvent(eventName);
+            userManager.removeEvent(user, eventName);
         }
 
         //room no longer holds this event
         roomManager.removeEvent(eventManager.getRoomCodeOfEvent(eventName), eventName);
 
         //speakers no longer speak at this event (if event is a talk or discussion)
-        if (eventManager.getTalks().contains(eventName)) {
+        if (eventManager.getEventType(eventName) == EventType.TALK) {
             userManager.removeEventFromSpeaker(eventManager.getTalkWithName(eventName).getSpeakerUsername(), eventName);
         }
-        else if(eventManager.getDiscussions().contains(eventName)) {
+        else if(eventManager.getEventType(eventName) == EventType.DISCUSSION) {
             for(String speaker: eventManager.getDiscussionWithName(eventName).getSpeakerUsernames()) {
                 userManager.removeEventFromSpeaker(speaker, eventName);
             }
@@ -762,7 +753,7 @@ public class EventManagementHelper {
     }
 
     private boolean doesEventExist(String eventName, EventManager eventManager, EventManagementPresenter presenter) {
-        if (eventManager.getEventNames().contains(eventName)) {
+        if (eventManager.hasEvent(eventName)) {
             return true;
         }
         presenter.eventNotFound(eventName);
@@ -1,24 +1,55 @@
 package Controller;
 
+import Gateway.SnapshotService;
 import Presenter.LoginPresenter;
 import UseCase.*;
 import Util.CancelThrowable;
 import Util.PermissionLevel;
 
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class LoginSystem {
 
+    private final SnapshotService snapshotService;
+
+    // Given the Controller.UserController of each user who logs in before it runs, and null once they log out
+    private final Consumer<UserController> controllerListener;
+
+    /**
+     * Creates a new Controller.LoginSystem.
+     *
+     * @param snapshotService The Gateway.SnapshotService which saves the changes made in this session.
+     */
+    public LoginSystem(SnapshotService snapshotService) {
+        this(snapshotService, userController -> {});
+    }
+
+    /**
+     * Creates a new Controller.LoginSystem which tells a listener which kind of user is logged in.
+     *
+     * @param snapshotService The Gateway.SnapshotService which saves the changes made in this session.
+     * @param controllerListener Given the Controller.UserController of each user who logs in before it runs, and null
+     *                           once they log out.
+     */
+    LoginSystem(SnapshotService snapshotService, Consumer<UserController> controllerListener) {
+        this.snapshotService = snapshotService;
+        this.controllerListener = controllerListener;
+    }
+
     /**
      * Allows the user to login as a specific Entity.User using a username and password pair.
      * The user can also sign up as a new Attendee by creating a username and password pair.
      *
      * @param userManager The UseCase.UserManager associated with this session.
      * @param eventManager The UseCase.EventManager associated with this session.
-     * @param messageManager The UseCase.MessageManager associated with this session.
+     * @param messageManagerLoad Completes with the UseCase.MessageManager associated with this session, which may
+     *                           still be loading when the user starts logging in.
      * @param roomManager The UseCase.RoomManager associated with this session
      */
-    public void run(UserManager userManager, EventManager eventManager, MessageManager messageManager, RoomManager roomManager) {
+    public void run(UserManager userManager, EventManager eventManager, CompletableFuture<MessageManager> messageManagerLoad,
+                    RoomManager roomManager) {
         LoginPresenter presenter = new LoginPresenter();
         Scanner scanner = new Scanner(System.in);
 
@@ -102,8 +133,17 @@ public class LoginSystem {
                 // Creates and calls the appropriate Controller.UserController
                 UserControllerFactory controllerFactory = new UserControllerFactory();
                 UserController userController = controllerFactory.getUserController(mainUsername, userManager);
+                userController.setSnapshotService(snapshotService);
 
-                userController.run(mainUsername, userManager, eventManager, messageManager, roomManager);
+                // Only waits if the messages are still loading
+                MessageManager messageManager = messageManagerLoad.join();
+                controllerListener.accept(userController);
+                try {
+                    userController.run(mainUsername, userManager, eventManager, messageManager, roomManager);
+                }
+                finally {
+                    controllerListener.accept(null);
+                }
 
                 presenter.successfullyLoggedOut(mainUsername);
             } catch (CancelThrowable ct) {
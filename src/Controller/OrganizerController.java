@@ -4,6 +4,7 @@ import Gateway.ScheduleStorage;
 import Presenter.*;
 import UseCase.*;
 import Util.CancelThrowable;
+import Util.RankingMetric;
 
 import java.util.*;
 
@@ -119,9 +120,12 @@ public class OrganizerController extends UserController {
             choiceGenerateSchedule(eventManager, scanner, presenter);
         }
         else if (menuChoice.equals("19")) {
+            choiceGenerateAllSchedules(userManager, eventManager, scanner, presenter);
+        }
+        else if (menuChoice.equals("20")) {
             return false;
         } else {
-            presenter.notifyInvalidNumberRange(1, 19);
+            presenter.notifyInvalidNumberRange(1, 20);
         }
 
         return true;
@@ -163,14 +167,18 @@ public class OrganizerController extends UserController {
         if (menuChoice.equals("1")){
             statsPresenter.printEventEnrollStats();
         } else if (menuChoice.equals("2")){
-            statsPresenter.printTopEvents();
+            printTopK(RankingMetric.EVENT_ATTENDANCE, statsPresenter, scanner);
         } else if (menuChoice.equals("3")){
-            statsPresenter.printTopRooms();
+            printTopK(RankingMetric.EVENT_FULLNESS, statsPresenter, scanner);
         } else if (menuChoice.equals("4")){
-            statsPresenter.printAverageEventNumber();
+            printTopK(RankingMetric.ROOM_EVENTS, statsPresenter, scanner);
         } else if (menuChoice.equals("5")){
-            statsPresenter.printAverageAttendeeNumber();
+            printTopK(RankingMetric.SPEAKER_AUDIENCE, statsPresenter, scanner);
         } else if (menuChoice.equals("6")){
+            statsPresenter.printAverageEventNumber();
+        } else if (menuChoice.equals("7")){
+            statsPresenter.printAverageAttendeeNumber();
+        } else if (menuChoice.equals("8")){
             statsPresenter.returnBackToMenu();
             return false;
         } else {
@@ -179,6 +187,23 @@ public class OrganizerController extends UserController {
         return true;
     }
 
+    //helper method which asks how many places of a ranking to show, then shows them
+    private void printTopK(RankingMetric metric, SummaryStatsPresenter statsPresenter, Scanner scanner){
+        statsPresenter.promptNumberOfPlaces();
+        String places = scanner.nextLine().trim();
+
+        int k = 3;
+        if (!places.isEmpty()) {
+            try {
+                k = Integer.parseInt(places);
+            } catch (NumberFormatException e){
+                statsPresenter.notANumber();
+                return;
+            }
+        }
+        statsPresenter.printTopK(k, metric);
+    }
+
     private void choiceGenerateSchedule(EventManager eventManager, Scanner scanner, OrganizerPresenter presenter) {
         try {
             String outputPath = "";
@@ -192,16 +217,58 @@ public class OrganizerController extends UserController {
             presenter.savingSchedule();
 
             PrintoutGenerator printoutGenerator = new PrintoutGenerator();
-            String codeStr = printoutGenerator.generateFullSchedule(eventManager);
+            CalendarGenerator calendarGenerator = new CalendarGenerator();
 
             presenter.successfullySavedSchedule(outputPath);
 
             ScheduleStorage scheduleStorage = new ScheduleStorage();
-            scheduleStorage.saveSchedule(codeStr, outputPath);
+            if (outputPath.endsWith(".ics")) {
+                scheduleStorage.saveCalendar(out -> calendarGenerator.writeFullCalendar(eventManager, out), outputPath);
+            }
+            else {
+                scheduleStorage.saveSchedule(out -> printoutGenerator.writeFullSchedule(eventManager, out), outputPath);
+            }
         } catch (CancelThrowable ct) {
             presenter.returningToMenu();
         }
     }
 
-}
+    private void choiceGenerateAllSchedules(UserManager userManager, EventManager eventManager, Scanner scanner,
+                                            OrganizerPresenter presenter) {
+        try {
+            presenter.promptOutputDirectory();
+            String outputPath = scanner.nextLine().trim();
 
+            if (outputPath.equals(CancelThrowable.CANCEL_STRING)) {
+                throw new CancelThrowable();
+            }
+
+            Set<String> usernames = userManager.getUserNames();
+
+            PrintoutGenerator printoutGenerator = new PrintoutGenerator();
+            Map<String, ScheduleStorage.Renderer> renderers = new HashMap<>();
+            for (String username : usernames) {
+                if (userManager.hasSpeaker(username)) {
+                    renderers.put(username, out -> printoutGenerator.writeSpeakerSchedule(username, eventManager,
+                            userManager, out));
+                }
+                else {
+                    renderers.put(username, out -> printoutGenerator.writeAttendeeSchedule(username, eventManager,
+                            userManager, out));
+                }
+            }
+
+            presenter.savingSchedules(renderers.size());
+
+            long start = System.nanoTime();
+            ScheduleStorage scheduleStorage = new ScheduleStorage();
+            int saved = scheduleStorage.saveSchedules(renderers, outputPath);
+
+            presenter.successfullySavedSchedules(saved, renderers.size(), outputPath,
+                    (System.nanoTime() - start) / 1000000);
+        } catch (CancelThrowable ct) {
+            presenter.returningToMenu();
+        }
+    }
+
+}
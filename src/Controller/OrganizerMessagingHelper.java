@@ -5,6 +5,7 @@ import UseCase.MessageManager;
 import UseCase.UserManager;
 import Util.CancelThrowable;
 
+import java.util.HashSet;
 import java.util.Scanner;
 import java.util.Set;
 
@@ -20,11 +21,9 @@ public class OrganizerMessagingHelper extends OrganizerController {
             }
 
             Set<String> speakerNames = userManager.getSpeakerNames();
-            for (String name : speakerNames) {
-                if (!name.equals(mainUserName)) {
-                    messageManager.messageUser(messageContents, mainUserName, name);
-                }
-            }
+            Set<String> receivers = new HashSet<>(speakerNames);
+            receivers.remove(mainUserName);
+            messageManager.messageUsers(messageContents, mainUserName, receivers);
 
             presenter.notifySuccessfullySentMessage();
         } catch (CancelThrowable ct) {
@@ -42,11 +41,9 @@ public class OrganizerMessagingHelper extends OrganizerController {
             }
 
             Set<String> userNames = userManager.getUserNames();
-            for (String name : userNames) {
-                if (!name.equals(mainUserName)) {
-                    messageManager.messageUser(messageContents, mainUserName, name);
-                }
-            }
+            Set<String> receivers = new HashSet<>(userNames);
+            receivers.remove(mainUserName);
+            messageManager.messageUsers(messageContents, mainUserName, receivers);
 
             presenter.notifySuccessfullySentMessage();
         } catch (CancelThrowable ct) {
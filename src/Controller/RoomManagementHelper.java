@@ -250,7 +250,7 @@ public class RoomManagementHelper {
     }
 
     private boolean isRoomCodeTaken(RoomManager roomManager, String roomCode, RoomManagementPresenter presenter) {
-        if (roomManager.getRoomCodes().contains(roomCode)) {
+        if (roomManager.hasRoom(roomCode)) {
             presenter.notifyRoomCodeIsTaken();
             return true;
         }
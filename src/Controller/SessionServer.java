@@ -0,0 +1,292 @@
+package Controller;
+
+import Gateway.SnapshotService;
+import Presenter.ServerPresenter;
+import UseCase.EventManager;
+import UseCase.MessageManager;
+import UseCase.RoomManager;
+import UseCase.UserManager;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// This class lets many people use the program at once, each over their own connection to a local TCP port. Each
+// connection gets a session of its own, which runs the same Controller.LoginSystem as the terminal does.
+// The controllers and presenters read System.in and write System.out, so while the server runs those are replaced by
+// streams which pass everything through to the connection of the session running on the current thread (or to the
+// real terminal, on any other thread).
+// The managers are shared by every session, and any number of threads can use them at once. Most sessions therefore
+// run side by side, sharing managerLock. An organizer's actions check and change several managers one after another
+// (such as whether a room is free before an event is booked into it), so the session of an organizer holds
+// managerLock exclusively, and the other sessions wait for it between one line of input and the next. Every session
+// lets go of managerLock while it waits for its user to type something.
+public class SessionServer {
+
+    private final int port;
+    private final SnapshotService snapshotService;
+
+    // Shared by the sessions using the managers, or held exclusively by the session of an organizer
+    private final ReentrantReadWriteLock managerLock = new ReentrantReadWriteLock(true);
+
+    // The connection of the session running on the current thread, if there is one
+    private final ThreadLocal<Connection> currentConnection = new ThreadLocal<>();
+
+    // Every connection whose session has not finished, so they can be closed when the server stops
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a new Controller.SessionServer.
+     * @param port The local port to accept connections on.
+     * @param snapshotService The Gateway.SnapshotService which saves the changes made in every session.
+     */
+    public SessionServer(int port, SnapshotService snapshotService) {
+        this.port = port;
+        this.snapshotService = snapshotService;
+    }
+
+    // What a session reads from and writes to
+    private class Connection {
+        final InputStream in;
+        final OutputStream out;
+
+        // Whether this session needs the managers to itself, because an organizer is logged in
+        boolean exclusive;
+
+        // The side of managerLock this session holds, or null while it holds neither
+        Lock held;
+
+        Connection(Socket socket) throws IOException {
+            in = socket.getInputStream();
+            out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        void lock() {
+            held = exclusive ? managerLock.writeLock() : managerLock.readLock();
+            held.lock();
+        }
+
+        void unlock() {
+            if (held != null) {
+                held.unlock();
+                held = null;
+            }
+        }
+
+        // Switches between sharing the managers and having them to itself, as a user logs in or out
+        void setExclusive(boolean exclusive) {
+            unlock();
+            this.exclusive = exclusive;
+            lock();
+        }
+
+        // Waits for input without holding on to the managers, so other sessions can use them in the meantime
+        int read(byte[] bytes, int offset, int length) throws IOException {
+            // anything asked of the user has to reach them before they can answer it
+            out.flush();
+
+            boolean locked = held != null;
+            unlock();
+            try {
+                return in.read(bytes, offset, length);
+            }
+            finally {
+                if (locked) {
+                    lock();
+                }
+            }
+        }
+    }
+
+    // Reads from the connection of the current thread's session, or from the real System.in
+    private class SessionInput extends InputStream {
+        private final InputStream terminal;
+
+        SessionInput(InputStream terminal) {
+            this.terminal = terminal;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] oneByte = new byte[1];
+            int read = read(oneByte, 0, 1);
+            return read <= 0 ? -1 : oneByte[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            Connection connection = currentConnection.get();
+            return connection == null ? terminal.read(bytes, offset, length)
+                    : connection.read(bytes, offset, length);
+        }
+    }
+
+    // Writes to the connection of the current thread's session, or to the real System.out
+    private class SessionOutput extends OutputStream {
+        private final OutputStream terminal;
+
+        SessionOutput(OutputStream terminal) {
+            this.terminal = terminal;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            getOut().write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            getOut().write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            getOut().flush();
+        }
+
+        private OutputStream getOut() {
+            Connection connection = currentConnection.get();
+            return connection == null ? terminal : connection.out;
+        }
+    }
+
+    /**
+     * Accepts connections and runs a session for each until "stop" is entered on the terminal.
+     * @param userManager The UseCase.UserManager shared by every session.
+     * @param eventManager The UseCase.EventManager shared by every session.
+     * @param messageManagerLoad Completes with the UseCase.MessageManager shared by every session.
+     * @param roomManager The UseCase.RoomManager shared by every session.
+     */
+    public void run(UserManager userManager, EventManager eventManager,
+                    CompletableFuture<MessageManager> messageManagerLoad, RoomManager roomManager) {
+        ServerPresenter presenter = new ServerPresenter();
+        InputStream terminalIn = System.in;
+        PrintStream terminalOut = System.out;
+        ExecutorService sessions = newSessionExecutor();
+
+        ServerSocket serverSocket;
+        try {
+            serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        }
+        catch (IOException e) {
+            presenter.cannotListen(port);
+            return;
+        }
+
+        try {
+            System.setIn(new SessionInput(terminalIn));
+            System.setOut(new PrintStream(new SessionOutput(terminalOut), true));
+
+            Thread acceptor = new Thread(() -> {
+                while (!serverSocket.isClosed()) {
+                    try {
+                        Socket socket = serverSocket.accept();
+                        openSockets.add(socket);
+                        sessions.execute(() -> runSession(socket, userManager, eventManager, messageManagerLoad,
+                                roomManager));
+                    }
+                    catch (IOException e) {
+                        // the server socket was closed
+                    }
+                }
+            }, "session-acceptor");
+            acceptor.start();
+            presenter.listening(port);
+
+            Scanner scanner = new Scanner(System.in);
+            boolean stopped = false;
+            while (!stopped && scanner.hasNextLine()) {
+                stopped = scanner.nextLine().trim().equalsIgnoreCase("stop");
+                if (!stopped) {
+                    presenter.notStop();
+                }
+            }
+            if (!stopped) {
+                // there is no terminal to stop the server from, so it runs until the program is killed
+                acceptor.join();
+            }
+
+            presenter.stopping();
+            // stops the acceptor, so that no session starts while the open ones are ended
+            serverSocket.close();
+            for (Socket socket : openSockets) {
+                socket.close();
+            }
+            sessions.shutdown();
+            sessions.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        catch (IOException e) {
+            // a socket could not be closed, which the program exiting will do anyway
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            try {
+                serverSocket.close();
+            }
+            catch (IOException e) {
+                // already closed
+            }
+            System.setIn(terminalIn);
+            System.setOut(terminalOut);
+        }
+    }
+
+    private void runSession(Socket socket, UserManager userManager, EventManager eventManager,
+                            CompletableFuture<MessageManager> messageManagerLoad, RoomManager roomManager) {
+        try {
+            Connection connection = new Connection(socket);
+            currentConnection.set(connection);
+            connection.lock();
+            try {
+                new LoginSystem(snapshotService,
+                        userController -> connection.setExclusive(userController instanceof OrganizerController))
+                        .run(userManager, eventManager, messageManagerLoad, roomManager);
+            }
+            finally {
+                System.out.flush();
+                connection.unlock();
+            }
+        }
+        catch (IOException | NoSuchElementException e) {
+            // the user disconnected, or the server is stopping
+        }
+        finally {
+            currentConnection.remove();
+            openSockets.remove(socket);
+            try {
+                socket.close();
+            }
+            catch (IOException e) {
+                // already closed
+            }
+        }
+    }
+
+    // One virtual thread per session where the Java version has them (21 and later), and otherwise a pool of
+    // ordinary threads which grows with the number of sessions
+    private static ExecutorService newSessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
@@ -143,12 +143,19 @@ public class SpeakerController extends UserController {
             presenter.savingSchedule();
 
             PrintoutGenerator printoutGenerator = new PrintoutGenerator();
-            String codeStr = printoutGenerator.generateSpeakerSchedule(speakerUsername, eventManager, userManager);
+            CalendarGenerator calendarGenerator = new CalendarGenerator();
 
             presenter.successfullySavedSchedule(outputPath);
 
             ScheduleStorage scheduleStorage = new ScheduleStorage();
-            scheduleStorage.saveSchedule(codeStr, outputPath);
+            if (outputPath.endsWith(".ics")) {
+                scheduleStorage.saveCalendar(out -> calendarGenerator.writeSpeakerCalendar(speakerUsername, eventManager,
+                        userManager, out), outputPath);
+            }
+            else {
+                scheduleStorage.saveSchedule(out -> printoutGenerator.writeSpeakerSchedule(speakerUsername, eventManager,
+                        userManager, out), outputPath);
+            }
         } catch (CancelThrowable ct) {
             presenter.returningToMenu();
         }
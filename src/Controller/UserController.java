@@ -1,9 +1,6 @@
 package Controller;
 
-import Gateway.EventStorage;
-import Gateway.MessageStorage;
-import Gateway.RoomStorage;
-import Gateway.UserStorage;
+import Gateway.SnapshotService;
 import Presenter.UserPresenter;
 import UseCase.EventManager;
 import UseCase.MessageManager;
@@ -15,6 +12,9 @@ import java.util.List;
 import java.util.Scanner;
 
 abstract class UserController {
+
+    private SnapshotService snapshotService;
+
     /**
      * The main run method of the controller.
      * This method lets the user perform actions in the program as a specific mainUser.
@@ -28,35 +28,23 @@ abstract class UserController {
     public abstract void run(String mainUserName, UserManager userManager, EventManager eventManager,
                     MessageManager messageManager, RoomManager roomManager);
 
+    /**
+     * Writes the changes made to the managers by the last action to the journal, and to the snapshots in the background.
+     * @param userManager The UseCase.UserManager associated with this session.
+     * @param eventManager The UseCase.EventManager associated with this session.
+     * @param roomManager The UseCase.RoomManager associated with this session
+     * @param messageManager The UseCase.MessageManager associated with this session
+     */
     protected void saveState(UserManager userManager, EventManager eventManager, RoomManager roomManager, MessageManager messageManager) {
-        saveState(userManager);
-        saveState(eventManager);
-        saveState(roomManager);
-        saveState(messageManager);
-    }
-
-    protected void saveState(UserManager userManager) {
-        UserStorage userStorage = new UserStorage();
-
-        userStorage.serializeUserManager(userManager);
-    }
-
-    protected void saveState(EventManager eventManager) {
-        EventStorage eventStorage = new EventStorage();
-
-        eventStorage.serializeEventManager(eventManager);
-    }
-
-    protected void saveState(RoomManager roomManager) {
-        RoomStorage roomStorage = new RoomStorage();
-
-        roomStorage.serializeRoomManager(roomManager);
+        snapshotService.commit(userManager, eventManager, roomManager, messageManager);
     }
 
-    protected void saveState(MessageManager messageManager) {
-        MessageStorage messageStorage = new MessageStorage();
-
-        messageStorage.serializeMessageManager(messageManager);
+    /**
+     * Sets the Gateway.SnapshotService used to save the changes made by this controller.
+     * @param snapshotService The Gateway.SnapshotService of this session.
+     */
+    void setSnapshotService(SnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
     }
 
     protected void choiceMessaging(UserPresenter presenter, Scanner input, String mainUserName, MessageManager messageManager, UserManager userManager) {
@@ -45,7 +45,7 @@ public class VipController extends AttendeeController {
         else if (menuChoice.equals("3")){
             choiceSeeMyEvents(presenter, mainUserName);
         } else if (menuChoice.equals("4")){
-            choiceSignUpEvents(mainUserName, presenter, userManager, eventManager, roomManager, input);
+            choiceSignUpEvents(mainUserName, presenter, userManager, eventManager, input);
             saveState(userManager, eventManager, roomManager, messageManager);
         }  else if (menuChoice.equals("5")) {
             choiceCancelEvents(mainUserName, presenter, userManager, eventManager, input);
@@ -73,7 +73,7 @@ public class VipController extends AttendeeController {
 
     @Override
     protected void choiceSignUpEvents(String user, AttendeePresenter presenter, UserManager userM,
-                                      EventManager eventM, RoomManager roomM, Scanner input){
+                                      EventManager eventM, Scanner input){
         try {
             boolean validEvent;
             String[] signupEvent;
@@ -90,9 +90,10 @@ public class VipController extends AttendeeController {
                         && !checkIfUserAlreadySignedUp(presenter, signupEvent, user, userM);
             } while (!validEvent);
 
-            signUpForEvents(user, signupEvent, userM, eventM, roomM);
+            String[] signedUpEvents = signUpForEvents(user, signupEvent, userM, eventM);
 
-            presenter.successfullySignedUp(signupEvent);
+            reportFullEvents(presenter, signupEvent, signedUpEvents);
+            presenter.successfullySignedUp(signedUpEvents);
         } catch (CancelThrowable ct) {
             presenter.returningToMenu();
         }
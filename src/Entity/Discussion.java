@@ -2,12 +2,14 @@ package Entity;
 
 import java.io.Serializable;
 import java.util.Collection;
-import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
 
 public class Discussion extends Event implements Serializable {
 
+    // Pinned, so that files saved by earlier versions can still be read
+    private static final long serialVersionUID = -8584908724025022628L;
+
     // names of the speakers for this Entity.Discussion
     private Set<String> speakerUsernames;
 
@@ -15,13 +17,13 @@ public class Discussion extends Event implements Serializable {
      * Creates a new Entity.Discussion. A Entity.Discussion is an Entity.Event with multiple speakers.
      *
      * @param name - name of this Entity.Discussion
-     * @param dateAndTime - date and time of this Entity.Discussion
+     * @param startTime - start time of this Entity.Discussion, in milliseconds since the epoch
      * @param roomCode - code of the room this Entity.Discussion is held
      * @param speakerUsernames - a collection of speakers for the event
      * @param capacity - the maximum number of attendees for this Entity.Event
      */
-    public Discussion(String name, Date dateAndTime, String roomCode, Collection<String> speakerUsernames, int capacity) {
-        super(name, dateAndTime, roomCode, capacity);
+    public Discussion(String name, long startTime, String roomCode, Collection<String> speakerUsernames, int capacity) {
+        super(name, startTime, roomCode, capacity);
         this.speakerUsernames = new HashSet<>();
         this.speakerUsernames.addAll(speakerUsernames);
     }
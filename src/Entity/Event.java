@@ -1,23 +1,31 @@
 package Entity;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.Date;
 import java.util.Set;
-import java.util.HashSet;
 import java.util.Collection;
-import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class Event implements Serializable {
 
+    // The same as before start times were kept in milliseconds, so that files saved by those versions can still be read
+    private static final long serialVersionUID = 4293165672469823544L;
+
     // name of this Entity.Event
     private String name;
 
-    // date and time of this Entity.Event
-    private Date dateAndTime;
+    // Every Entity.Event lasts one hour, in milliseconds
+    public static final long LENGTH = 60 * 60 * 1000;
+
+    // start time of this Entity.Event, in milliseconds since the epoch
+    private long startTime;
 
     // room this Entity.Event is held
     private String roomCode;
 
-    // list of users attending this Entity.Event
+    // list of users attending this Entity.Event; concurrent, so it can be read while users sign up
     private Set<String> attendanceUsernames;
 
     // capacity of this Entity.Event
@@ -29,7 +37,7 @@ public abstract class Event implements Serializable {
     /**
      * Creates a new Entity.Event
      * @param name - name of this Entity.Event
-     * @param dateAndTime - date and time of this Entity.Event
+     * @param startTime - start time of this Entity.Event, in milliseconds since the epoch
      * @param roomCode - the code of the Entity.Room which this Entity.Event is held
      * @param eventCapacity - the maximum number of attendees for this Entity.Event
      *
@@ -37,12 +45,32 @@ public abstract class Event implements Serializable {
      * eventCapacity is less than or equal to the capacity this room is held in
      */
 
-    public Event(String name, Date dateAndTime, String roomCode, int eventCapacity) {
+    public Event(String name, long startTime, String roomCode, int eventCapacity) {
         this.name = name;
-        this.dateAndTime = dateAndTime;
+        this.startTime = startTime;
         this.roomCode = roomCode;
         this.capacity = eventCapacity;
-        attendanceUsernames = new HashSet<>();
+        attendanceUsernames = ConcurrentHashMap.newKeySet();
+    }
+
+    // Events saved before start times were kept in milliseconds have a java.util.Date named dateAndTime instead, and
+    // events saved before the list of attendance was concurrent are given a concurrent copy of it
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        name = (String) fields.get("name", null);
+        roomCode = (String) fields.get("roomCode", null);
+        capacity = fields.get("capacity", 0);
+        isVipEvent = fields.get("isVipEvent", false);
+        if (fields.defaulted("startTime")) {
+            startTime = ((Date) fields.get("dateAndTime", null)).getTime();
+        }
+        else {
+            startTime = fields.get("startTime", 0L);
+        }
+
+        attendanceUsernames = ConcurrentHashMap.newKeySet();
+        attendanceUsernames.addAll((Set<String>) fields.get("attendanceUsernames", null));
     }
 
     /**
@@ -55,10 +83,10 @@ public abstract class Event implements Serializable {
 
 
     /**
-     * Changes the date of this Entity.Event
-     * @param newDate - new date of this Entity.Event
+     * Changes the start time of this Entity.Event
+     * @param newStartTime - new start time of this Entity.Event, in milliseconds since the epoch
      */
-    public void setDate(Date newDate)  { dateAndTime = newDate; }
+    public void setStartTime(long newStartTime)  { startTime = newStartTime; }
 
     /**
      * Changes the room of this Entity.Event
@@ -122,10 +150,18 @@ public abstract class Event implements Serializable {
 
     /**
      *
-     * @return date of this Entity.Event.
+     * @return start time of this Entity.Event, in milliseconds since the epoch.
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     *
+     * @return end time of this Entity.Event, in milliseconds since the epoch.
      */
-    public Date getDateAndTime() {
-        return dateAndTime;
+    public long getEndTime() {
+        return startTime + LENGTH;
     }
 
     /**
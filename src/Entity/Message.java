@@ -4,6 +4,9 @@ import java.io.Serializable;
 
 public class Message implements Serializable {
 
+    // Pinned, so that files saved by earlier versions can still be read
+    private static final long serialVersionUID = -3149645166603775397L;
+
     // The content of this Entity.Message
     private String messageContent;
     // The username of sender of this Entity.Message
@@ -1,20 +1,23 @@
 package Entity;
 
-import java.util.Date;
 
 public class Party extends Event {
+
+    // Pinned, so that files saved by earlier versions can still be read
+    private static final long serialVersionUID = -7131169180560762058L;
+
     /**
      * Creates a new Entity.Event
      *
      * @param name          - name of this Entity.Event
-     * @param dateAndTime   - date and time of this Entity.Event
+     * @param startTime   - start time of this Entity.Event, in milliseconds since the epoch
      * @param roomCode      - the code of the Entity.Room which this Entity.Event is held
      * @param eventCapacity - the maximum number of attendees for this Entity.Event
      *
      *                      **Precondition**
      * eventCapacity is less than or equal to the capacity this room is held in
      */
-    public Party(String name, Date dateAndTime, String roomCode, int eventCapacity) {
-        super(name, dateAndTime, roomCode, eventCapacity);
+    public Party(String name, long startTime, String roomCode, int eventCapacity) {
+        super(name, startTime, roomCode, eventCapacity);
     }
 }
@@ -9,6 +9,9 @@ import java.util.HashSet;
 
 public class Room implements Serializable {
 
+    // Pinned, so that files saved by earlier versions can still be read
+    private static final long serialVersionUID = -7218426609118770656L;
+
     // The Entity.Room identifier
     private String roomCode;
 
@@ -2,6 +2,8 @@ package Entity;
 
 import Util.PermissionLevel;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.Date;
 import java.util.HashMap;
@@ -9,8 +11,11 @@ import java.util.Map;
 
 public class Speaker extends User implements Serializable {
 
+    // Pinned, so that files saved by earlier versions can still be read
+    private static final long serialVersionUID = 8791348118309602814L;
+
     // Mapping of the name of events this Entity.Speaker speaks at to the time this Entity.Speaker is speaking
-    private Map<String, Date[]> schedule;
+    private Map<String, long[]> schedule;
 
     /**
      * Constructs a Entity.Speaker with a given username and password.
@@ -25,22 +30,39 @@ public class Speaker extends User implements Serializable {
         schedule = new HashMap<>();
     }
 
+    // Speakers saved before times were kept in milliseconds have each time in their schedule as a pair of
+    // java.util.Date
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        Map<String, ?> savedSchedule = schedule;
+        schedule = new HashMap<>();
+        for (Map.Entry<String, ?> entry : savedSchedule.entrySet()) {
+            Object time = entry.getValue();
+            if (time instanceof Date[]) {
+                Date[] dates = (Date[]) time;
+                time = new long[]{dates[0].getTime(), dates[1].getTime()};
+            }
+            schedule.put(entry.getKey(), (long[]) time);
+        }
+    }
+
     /**
      *
      * @return the mapping of event names this Entity.Speaker is booked for to the timing of the event
      */
-    public Map<String, Date[]> getSchedule() { return schedule; }
+    public Map<String, long[]> getSchedule() { return schedule; }
 
     /**
      * Add the name of event and the time of when this Entity.Speaker speaks at that event
      * @param eventName The name of the Entity.Event
-     * @param timeOfSpeech An array containing the beginning and ending time of the speech
+     * @param timeOfSpeech An array containing the beginning and ending time of the speech, in milliseconds since the
+     *                     epoch
      *
      *                     **Precondition**
-     * - timeOfSpeech has a length of 2, and the first Date element is chronologically before the second Date element
-     * - timeOfSpeech does not conflict with any other Date value in eventNametoTime
+     * - timeOfSpeech has a length of 2, and the first element is chronologically before the second element
+     * - timeOfSpeech does not conflict with any other time in the schedule
      */
-    public void assignEvent(String eventName, Date[] timeOfSpeech){
+    public void assignEvent(String eventName, long[] timeOfSpeech){
         schedule.put(eventName, timeOfSpeech);
     }
 
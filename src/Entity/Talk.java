@@ -1,23 +1,25 @@
 package Entity;
 
 import java.io.Serializable;
-import java.util.Date;
 
 public class Talk extends Event implements Serializable {
 
+    // Pinned, so that files saved by earlier versions can still be read
+    private static final long serialVersionUID = -1800325307931007909L;
+
     // name of the speaker for this Entity.Talk
     private String speakerUsername;
 
     /**
      * Creates a new Entity.Talk. A Entity.Talk is an Entity.Event with exactly one speaker.
      * @param name - the name of this Entity.Talk
-     * @param dateAndTime - the date and time of this Entity.Talk
+     * @param startTime - the start time of this Entity.Talk, in milliseconds since the epoch
      * @param roomCode - the code of the room this Entity.Talk is held
      * @param speakerUsername - the speaker for this Entity.Talk
      * @param capacity - the maximum number of attendees for this Entity.Talk
      */
-    public Talk(String name, Date dateAndTime, String roomCode, String speakerUsername, int capacity) {
-        super(name, dateAndTime, roomCode, capacity);
+    public Talk(String name, long startTime, String roomCode, String speakerUsername, int capacity) {
+        super(name, startTime, roomCode, capacity);
         this.speakerUsername = speakerUsername;
     }
 
@@ -2,16 +2,23 @@ package Entity;
 
 import Util.PermissionLevel;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.util.HashSet;
 import java.util.Collection;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class User implements Serializable {
+
+    // Pinned, so that files saved by earlier versions can still be read
+    private static final long serialVersionUID = -5338894161563791321L;
+
     // The type of the user
     private PermissionLevel permissionLevel;
 
-    // The list of the names of the events that this user is signed up for
+    // The list of the names of the events that this user is signed up for; concurrent, so it can be read while the
+    // user signs up for events
     private Set<String> eventList;
 
     // The username of the user
@@ -29,12 +36,20 @@ public class User implements Serializable {
     public User(String username, String password, PermissionLevel permissionLevel) {
         this.permissionLevel = permissionLevel;
 
-        eventList = new HashSet<>();
+        eventList = ConcurrentHashMap.newKeySet();
 
         this.username = username;
         this.password = password;
     }
 
+    // Users saved before the event list was concurrent are given a concurrent copy of it
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        Set<String> savedEventList = eventList;
+        eventList = ConcurrentHashMap.newKeySet();
+        eventList.addAll(savedEventList);
+    }
+
     /**
      * Fetches the permission level.
      *
@@ -1,8 +1,20 @@
 package Gateway;
 
+import Entity.Discussion;
+import Entity.Event;
+import Entity.Party;
+import Entity.Talk;
+import UseCase.DiscussionBuilder;
 import UseCase.EventManager;
+import UseCase.PartyBuilder;
+import UseCase.TalkBuilder;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Handler;
 import java.util.logging.Level;
@@ -11,6 +23,10 @@ import java.util.logging.Logger;
 public class EventStorage {
 
     private final String FILE_PATH = "StoredEventManager.ser";
+    private final String TEMP_FILE_PATH = FILE_PATH + ".tmp";
+
+    // Marks a snapshot as being of a UseCase.EventManager
+    private final int SNAPSHOT_KIND = 'E';
 
     // final because every Gateway.EventStorage class will have the same logger
     private final static Logger logger = Logger.getLogger(EventStorage.class.getName());
@@ -20,6 +36,10 @@ public class EventStorage {
      * Create a new Gateway.EventStorage instance
      */
     public EventStorage() {
+        // the timings of loading are logged at INFO, so the log is shown only through this handler, and the handler is
+        // added once however many of this class are made, for each record to be printed once
+        logger.setUseParentHandlers(false);
+        logger.removeHandler(handler);
         logger.addHandler(handler);
     }
 
@@ -33,36 +53,105 @@ public class EventStorage {
     }
 
     /**
-     * Serializes an UseCase.EventManager
+     * Serializes an UseCase.EventManager. The .ser file is only replaced once the new one has been fully written.
+     * @param em - UseCase.EventManager to be serialized
+     * @return True if and only if the UseCase.EventManager was successfully saved
+     */
+    public boolean serializeEventManager(EventManager em) {
+        try {
+            return saveBytes(toBytes(em));
+        }
+        catch(IOException e) {
+            logger.log(Level.SEVERE, "Cannot serialize UseCase.EventManager.", e);
+            return false;
+        }
+    }
+
+    /**
+     * Serializes an UseCase.EventManager in memory, without touching the .ser file.
      * @param em - UseCase.EventManager to be serialized
+     * @return the contents of the .ser file for this UseCase.EventManager
+     */
+    public byte[] toBytes(EventManager em) throws IOException {
+        SnapshotOutput out = new SnapshotOutput();
+
+        List<Party> parties = new ArrayList<>();
+        List<Talk> talks = new ArrayList<>();
+        List<Discussion> discussions = new ArrayList<>();
+        for (Event event : em.getEvents()) {
+            if (event instanceof Talk) {
+                talks.add((Talk) event);
+            }
+            else if (event instanceof Discussion) {
+                discussions.add((Discussion) event);
+            }
+            else {
+                parties.add((Party) event);
+            }
+        }
+
+        out.writeVarInt(parties.size());
+        for (Party party : parties) {
+            writeEvent(out, party);
+        }
+
+        out.writeVarInt(talks.size());
+        for (Talk talk : talks) {
+            writeEvent(out, talk);
+            out.writeName(talk.getSpeakerUsername());
+        }
+
+        out.writeVarInt(discussions.size());
+        for (Discussion discussion : discussions) {
+            writeEvent(out, discussion);
+            out.writeNames(discussion.getSpeakerUsernames());
+        }
+
+        return out.toByteArray(SNAPSHOT_KIND);
+    }
+
+    /**
+     * Replaces the .ser file with the given contents. The old file is only replaced once the new one has been fully
+     * written.
+     * @param bytes - the serialized UseCase.EventManager
+     * @return True if and only if the file was successfully written
      */
-    public void serializeEventManager(EventManager em) {
+    public boolean saveBytes(byte[] bytes) {
         try {
-            OutputStream fileOut = new FileOutputStream(FILE_PATH);
-            OutputStream buffer = new BufferedOutputStream(fileOut);
-            ObjectOutput out = new ObjectOutputStream(buffer);
+            FileOutputStream fileOut = new FileOutputStream(TEMP_FILE_PATH);
+            fileOut.write(bytes);
+            fileOut.getFD().sync();
+            fileOut.close();
 
-            out.writeObject(em);
-            out.close();
+            Files.move(Paths.get(TEMP_FILE_PATH), Paths.get(FILE_PATH), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            return true;
         }
         catch(IOException e) {
-            logger.log(Level.SEVERE, "out.writeObject(em) failed.", e);
+            logger.log(Level.SEVERE, "Cannot write to " + FILE_PATH + ".", e);
+            return false;
         }
     }
 
     /**
-     * Deserializes a .ser file to an UseCase.EventManager class instance.
+     * Deserializes a .ser file to an UseCase.EventManager class instance. Files written by older versions of the
+     * program with default Java serialization can still be read.
      * @return an UseCase.EventManager class instance
      */
     public EventManager deserializeToEventManager() {
         EventManager em = null;
+        long start = System.nanoTime();
         try {
-            InputStream fileIn = new FileInputStream(FILE_PATH);
-            InputStream buffer = new BufferedInputStream(fileIn);
-            ObjectInput in = new ObjectInputStream(buffer);
+            byte[] bytes = Files.readAllBytes(Paths.get(FILE_PATH));
 
-            em = (EventManager) in.readObject();
-            in.close();
+            if (SnapshotInput.isSnapshot(bytes)) {
+                em = fromBytes(bytes);
+            }
+            else {
+                ObjectInput in = new ObjectInputStream(new ByteArrayInputStream(bytes));
+                em = (EventManager) in.readObject();
+                in.close();
+            }
         }
         catch(IOException e) {
             logger.log(Level.SEVERE, "Cannot read from input.", e);
@@ -70,6 +159,103 @@ public class EventStorage {
         catch(ClassNotFoundException c) {
             System.out.println("UseCase.EventManager class not found.");
         }
+        logger.log(Level.INFO, "Loaded " + FILE_PATH + " in " + (System.nanoTime() - start) / 1000000 + " ms.");
         return em;
     }
+
+    /**
+     * Reads a UseCase.EventManager back from a snapshot made by toBytes, without touching the .ser file.
+     * @param bytes - the snapshot
+     * @return the UseCase.EventManager in the snapshot
+     */
+    EventManager fromBytes(byte[] bytes) throws IOException {
+        SnapshotInput in = new SnapshotInput(bytes, SNAPSHOT_KIND);
+
+        List<Party> parties = new ArrayList<>();
+        int partyCount = in.readVarInt();
+        for (int i = 0; i < partyCount; i++) {
+            EventFields fields = readEvent(in);
+
+            PartyBuilder partyBuilder = new PartyBuilder();
+            partyBuilder.buildName(fields.name);
+            partyBuilder.buildStartTime(fields.startTime);
+            partyBuilder.buildRoomCode(fields.roomCode);
+            partyBuilder.buildCapacity(fields.capacity);
+            partyBuilder.buildIsVip(fields.isVip);
+
+            Party party = partyBuilder.getInstance();
+            party.addAllAttendees(fields.attendees);
+            parties.add(party);
+        }
+
+        List<Talk> talks = new ArrayList<>();
+        int talkCount = in.readVarInt();
+        for (int i = 0; i < talkCount; i++) {
+            EventFields fields = readEvent(in);
+
+            TalkBuilder talkBuilder = new TalkBuilder();
+            talkBuilder.buildName(fields.name);
+            talkBuilder.buildStartTime(fields.startTime);
+            talkBuilder.buildRoomCode(fields.roomCode);
+            talkBuilder.buildCapacity(fields.capacity);
+            talkBuilder.buildIsVip(fields.isVip);
+            talkBuilder.buildSpeaker(in.readName());
+
+            Talk talk = talkBuilder.getInstance();
+            talk.addAllAttendees(fields.attendees);
+            talks.add(talk);
+        }
+
+        List<Discussion> discussions = new ArrayList<>();
+        int discussionCount = in.readVarInt();
+        for (int i = 0; i < discussionCount; i++) {
+            EventFields fields = readEvent(in);
+
+            DiscussionBuilder discussionBuilder = new DiscussionBuilder();
+            discussionBuilder.buildName(fields.name);
+            discussionBuilder.buildStartTime(fields.startTime);
+            discussionBuilder.buildRoomCode(fields.roomCode);
+            discussionBuilder.buildCapacity(fields.capacity);
+            discussionBuilder.buildIsVip(fields.isVip);
+            discussionBuilder.addSpeakers(in.readNames());
+
+            Discussion discussion = discussionBuilder.getInstance();
+            discussion.addAllAttendees(fields.attendees);
+            discussions.add(discussion);
+        }
+
+        return new EventManager(parties, talks, discussions);
+    }
+
+    // The fields shared by every kind of event
+    private void writeEvent(SnapshotOutput out, Event event) throws IOException {
+        out.writeName(event.getName());
+        out.writeLong(event.getStartTime());
+        out.writeName(event.getRoomCode());
+        out.writeVarInt(event.getCapacity());
+        out.writeByte(event.getIsVipOnly() ? 1 : 0);
+        out.writeNames(event.getAttendees());
+    }
+
+    private EventFields readEvent(SnapshotInput in) throws IOException {
+        EventFields fields = new EventFields();
+        fields.name = in.readName();
+        fields.startTime = in.readLong();
+        fields.roomCode = in.readName();
+        fields.capacity = in.readVarInt();
+        fields.isVip = in.readByte() != 0;
+        fields.attendees = in.readNames();
+
+        return fields;
+    }
+
+    // The fields shared by every kind of event, as read from a snapshot
+    private static class EventFields {
+        String name;
+        long startTime;
+        String roomCode;
+        int capacity;
+        boolean isVip;
+        List<String> attendees;
+    }
 }
@@ -0,0 +1,354 @@
+package Gateway;
+
+import UseCase.*;
+import Util.MutationType;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.ConsoleHandler;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+public class JournalStorage {
+
+    private final String FILE_PATH = "StoredJournal.log";
+    private final String ROTATED_FILE_PATH = "StoredJournal.log.old";
+    private final String CHECKPOINT_PATH = "StoredJournal.checkpoint";
+    private final String TEMP_CHECKPOINT_PATH = CHECKPOINT_PATH + ".tmp";
+
+    // No single record is allowed to be larger than this many bytes
+    private final int MAX_RECORD_LENGTH = 16 * 1024 * 1024;
+
+    // final because every Gateway.JournalStorage class will have the same logger
+    private final static Logger logger = Logger.getLogger(JournalStorage.class.getName());
+    private static final Handler handler = new ConsoleHandler();
+
+    /**
+     * Create a new Gateway.JournalStorage instance
+     */
+    public JournalStorage() {
+        // the counts of journal records replayed are logged at INFO, so the log is shown only through this handler, and
+        // the handler is added once however many of this class are made, for each record to be printed once
+        logger.setUseParentHandlers(false);
+        logger.removeHandler(handler);
+        logger.addHandler(handler);
+    }
+
+    /**
+     * Appends every change made to the managers since the last commit to the journal and forces it to disk.
+     * @param um - UseCase.UserManager of this session
+     * @param em - UseCase.EventManager of this session
+     * @param rm - UseCase.RoomManager of this session
+     * @param mm - UseCase.MessageManager of this session
+     */
+    public void commit(UserManager um, EventManager em, RoomManager rm, MessageManager mm) {
+        appendPending(um, em, rm, mm);
+    }
+
+    /**
+     * Moves the records in the journal aside so that new records start a fresh journal. The moved records are kept
+     * (and replayed) until a snapshot containing them is confirmed with markSnapshotted.
+     */
+    public void rotate() {
+        File file = new File(FILE_PATH);
+        File rotated = new File(ROTATED_FILE_PATH);
+        if (!file.exists()) {
+            return;
+        }
+
+        try {
+            if (!rotated.exists()) {
+                Files.move(file.toPath(), rotated.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            }
+            else {
+                // the last snapshot was never confirmed, so its records have to be kept along with these
+                FileOutputStream rotatedOut = new FileOutputStream(rotated, true);
+                Files.copy(file.toPath(), rotatedOut);
+                rotatedOut.getFD().sync();
+                rotatedOut.close();
+                truncate(FILE_PATH, 0);
+            }
+        }
+        catch (IOException e) {
+            logger.log(Level.SEVERE, "Cannot rotate journal.", e);
+        }
+    }
+
+    /**
+     * Records that every change up to and including the given sequence number is in the snapshot, and discards the
+     * rotated journal records.
+     * @param sequence - the sequence number of the last change in the snapshot
+     */
+    public void markSnapshotted(long sequence) {
+        if (writeCheckpoint(sequence)) {
+            new File(ROTATED_FILE_PATH).delete();
+        }
+    }
+
+    /**
+     * Replays every change in the journal which is not already part of the last snapshot onto the given managers.
+     * A partially written record at the end of the journal (from a crash mid-write) is discarded.
+     * Changes to the UseCase.MessageManager are replayed once it has finished loading, so that the other managers
+     * can be used without waiting for it.
+     * @param um - UseCase.UserManager loaded from the last snapshot
+     * @param em - UseCase.EventManager loaded from the last snapshot
+     * @param rm - UseCase.RoomManager loaded from the last snapshot
+     * @param messageManagerLoad - completes with the UseCase.MessageManager loaded from the last snapshot
+     * @return completes with the UseCase.MessageManager once its changes have been replayed as well, or null if the
+     * checkpoint cannot be read, in which case nothing is replayed since there is no telling which changes are
+     * already in the snapshot
+     */
+    public CompletableFuture<MessageManager> replay(UserManager um, EventManager em, RoomManager rm,
+                                                    CompletableFuture<MessageManager> messageManagerLoad) {
+        long snapshotSequence = readCheckpoint();
+        if (snapshotSequence < 0) {
+            return null;
+        }
+        Mutation.advanceSequence(snapshotSequence);
+
+        List<Mutation> mutations = new ArrayList<>();
+        readFile(ROTATED_FILE_PATH, snapshotSequence, mutations);
+        readFile(FILE_PATH, snapshotSequence, mutations);
+
+        MutationReplayer replayer = new MutationReplayer();
+        List<Mutation> messageMutations = new ArrayList<>();
+        for (Mutation mutation : mutations) {
+            if (replayer.isMessageMutation(mutation)) {
+                messageMutations.add(mutation);
+            }
+            else {
+                apply(replayer, mutation, um, em, rm, null);
+            }
+        }
+
+        // the replayed changes are already in the journal
+        um.drainMutations();
+        em.drainMutations();
+        rm.drainMutations();
+        logger.log(Level.INFO, "Replayed " + (mutations.size() - messageMutations.size()) + " journal records.");
+
+        return messageManagerLoad.thenApply(mm -> {
+            for (Mutation mutation : messageMutations) {
+                apply(replayer, mutation, um, em, rm, mm);
+            }
+            mm.drainMutations();
+            logger.log(Level.INFO, "Replayed " + messageMutations.size() + " message journal records.");
+
+            return mm;
+        });
+    }
+
+    private void apply(MutationReplayer replayer, Mutation mutation, UserManager um, EventManager em, RoomManager rm,
+                       MessageManager mm) {
+        try {
+            replayer.apply(mutation, um, em, rm, mm);
+        }
+        catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Cannot replay journal record " + mutation.getSequence() + ".", e);
+        }
+    }
+
+    // Reads the records of a journal file which are not already part of the last snapshot
+    private void readFile(String path, long snapshotSequence, List<Mutation> mutations) {
+        File file = new File(path);
+        if (!file.exists()) {
+            return;
+        }
+
+        long validLength = 0;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            Mutation mutation;
+            while ((mutation = readRecord(in)) != null) {
+                validLength += recordLength(mutation);
+                Mutation.advanceSequence(mutation.getSequence());
+
+                if (mutation.getSequence() > snapshotSequence) {
+                    mutations.add(mutation);
+                }
+            }
+        }
+        catch (IOException e) {
+            logger.log(Level.SEVERE, "Cannot read from journal.", e);
+        }
+
+        if (validLength < file.length()) {
+            logger.log(Level.WARNING, "Discarding incomplete record at the end of " + path + ".");
+            truncate(path, validLength);
+        }
+    }
+
+    // Writes the changes made since the last commit in the order they were made, then forces them to disk
+    private void appendPending(UserManager um, EventManager em, RoomManager rm, MessageManager mm) {
+        List<Mutation> pending = new ArrayList<>();
+        pending.addAll(um.drainMutations());
+        pending.addAll(em.drainMutations());
+        pending.addAll(rm.drainMutations());
+        pending.addAll(mm.drainMutations());
+
+        if (pending.isEmpty()) {
+            return;
+        }
+        pending.sort(Comparator.comparingLong(Mutation::getSequence));
+
+        try {
+            ByteArrayOutputStream records = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(records);
+            for (Mutation mutation : pending) {
+                writeRecord(out, mutation);
+            }
+
+            FileOutputStream fileOut = new FileOutputStream(FILE_PATH, true);
+            records.writeTo(fileOut);
+            fileOut.getFD().sync();
+            fileOut.close();
+        }
+        catch (IOException e) {
+            logger.log(Level.SEVERE, "Cannot append to journal.", e);
+        }
+    }
+
+    // The record format is: payload length, payload (sequence, type, arguments), CRC32 of the payload
+    private void writeRecord(DataOutputStream out, Mutation mutation) throws IOException {
+        byte[] payload = encode(mutation);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.writeLong(crc.getValue());
+    }
+
+    // Returns null at the end of the journal or at the first record which was not completely written
+    private Mutation readRecord(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            if (length < 0 || length > MAX_RECORD_LENGTH) {
+                return null;
+            }
+
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if (crc.getValue() != in.readLong()) {
+                return null;
+            }
+
+            return decode(payload);
+        }
+        catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private byte[] encode(Mutation mutation) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeLong(mutation.getSequence());
+        out.writeUTF(mutation.getType().name());
+        out.writeInt(mutation.getArgs().length);
+        for (String arg : mutation.getArgs()) {
+            byte[] argBytes = arg.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(argBytes.length);
+            out.write(argBytes);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private Mutation decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+
+        long sequence = in.readLong();
+        MutationType type = MutationType.valueOf(in.readUTF());
+        String[] args = new String[in.readInt()];
+        for (int i = 0; i < args.length; i++) {
+            byte[] argBytes = new byte[in.readInt()];
+            in.readFully(argBytes);
+            args[i] = new String(argBytes, StandardCharsets.UTF_8);
+        }
+
+        return new Mutation(sequence, type, args);
+    }
+
+    // The number of bytes the given record takes up in the journal
+    private long recordLength(Mutation mutation) throws IOException {
+        return Integer.BYTES + encode(mutation).length + Long.BYTES;
+    }
+
+    // The sequence number in the checkpoint; 0 if there is no checkpoint yet, and -1 if it cannot be read
+    private long readCheckpoint() {
+        File file = new File(CHECKPOINT_PATH);
+        if (!file.exists()) {
+            return 0;
+        }
+
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            long sequence = in.readLong();
+            // checkpoints used to be the sequence number alone, without a CRC32 after it
+            if (file.length() == Long.BYTES) {
+                return sequence;
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(ByteBuffer.allocate(Long.BYTES).putLong(sequence).array());
+            if (file.length() == 2 * Long.BYTES && crc.getValue() == in.readLong()) {
+                return sequence;
+            }
+            logger.log(Level.SEVERE, "Journal checkpoint " + CHECKPOINT_PATH + " is corrupt.");
+        }
+        catch (IOException e) {
+            logger.log(Level.SEVERE, "Cannot read journal checkpoint.", e);
+        }
+        return -1;
+    }
+
+    // Writes the checkpoint to a temporary file first and then moves it into place, so that a crash part way through
+    // leaves the old checkpoint as it was
+    private boolean writeCheckpoint(long sequence) {
+        try {
+            byte[] sequenceBytes = ByteBuffer.allocate(Long.BYTES).putLong(sequence).array();
+            CRC32 crc = new CRC32();
+            crc.update(sequenceBytes);
+
+            FileOutputStream fileOut = new FileOutputStream(TEMP_CHECKPOINT_PATH);
+            DataOutputStream out = new DataOutputStream(fileOut);
+            out.write(sequenceBytes);
+            out.writeLong(crc.getValue());
+            out.flush();
+            fileOut.getFD().sync();
+            fileOut.close();
+
+            Files.move(Paths.get(TEMP_CHECKPOINT_PATH), Paths.get(CHECKPOINT_PATH), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        }
+        catch (IOException e) {
+            logger.log(Level.SEVERE, "Cannot write journal checkpoint.", e);
+            return false;
+        }
+    }
+
+    private void truncate(String path, long length) {
+        try (RandomAccessFile file = new RandomAccessFile(path, "rw")) {
+            file.setLength(length);
+            file.getFD().sync();
+        }
+        catch (IOException e) {
+            logger.log(Level.SEVERE, "Cannot truncate journal.", e);
+        }
+    }
+}
@@ -1,8 +1,16 @@
 package Gateway;
 
+import UseCase.Broadcast;
 import UseCase.MessageManager;
+import UseCase.MessageRecord;
+import UseCase.MessageStore;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Handler;
 import java.util.logging.Level;
@@ -11,18 +19,45 @@ import java.util.logging.Logger;
 public class MessageStorage {
 
     private final String FILE_PATH = "StoredMessageManager.ser";
+    private final String TEMP_FILE_PATH = FILE_PATH + ".tmp";
+    private static final String SEGMENTS_PATH = "StoredMessages";
+
+    // Marks a snapshot as being of a UseCase.MessageManager
+    private final int SNAPSHOT_KIND = 'M';
+
+    // The bits of the status byte of each message
+    private final int READ = 1;
+    private final int ARCHIVED = 2;
 
     // final because every Gateway.MessageStorage class will have the same logger
     private final static Logger logger = Logger.getLogger(MessageStorage.class.getName());
     private static final Handler handler = new ConsoleHandler();
 
+    // Every Gateway.MessageStorage shares the one store, since its segments must only be appended to by one writer
+    private static SegmentedMessageStore messageStore;
+
     /**
      * Create a new Gateway.MessageStorage instance
      */
     public MessageStorage() {
+        // the timings of loading are logged at INFO, so the log is shown only through this handler, and the handler is
+        // added once however many of this class are made, for each record to be printed once
+        logger.setUseParentHandlers(false);
+        logger.removeHandler(handler);
         logger.addHandler(handler);
     }
 
+    /**
+     * Fetches the store holding the contents of the messages, opening it if this is the first time.
+     * @return the Gateway.SegmentedMessageStore of this program
+     */
+    public static synchronized SegmentedMessageStore getMessageStore() {
+        if (messageStore == null) {
+            messageStore = new SegmentedMessageStore(SEGMENTS_PATH);
+        }
+        return messageStore;
+    }
+
     /**
      * Checks whether or not there is a serialized UseCase.MessageManager.
      * @return True if and only if there is a .ser file for the UseCase.MessageManager.
@@ -33,36 +68,103 @@ public class MessageStorage {
     }
 
     /**
-     * Serializes a UseCase.MessageManager
+     * Serializes a UseCase.MessageManager. The .ser file is only replaced once the new one has been fully written.
      * @param mm - UseCase.MessageManager to be serialized
+     * @return True if and only if the UseCase.MessageManager was successfully saved
+     */
+    public boolean serializeMessageManager(MessageManager mm) {
+        try {
+            return saveBytes(toBytes(mm));
+        }
+        catch(IOException e) {
+            logger.log(Level.SEVERE, "Cannot serialize UseCase.MessageManager.", e);
+            return false;
+        }
+    }
+
+    /**
+     * Serializes a UseCase.MessageManager in memory, without touching the .ser file.
+     * @param mm - UseCase.MessageManager to be serialized
+     * @return the contents of the .ser file for this UseCase.MessageManager
+     */
+    public byte[] toBytes(MessageManager mm) throws IOException {
+        SnapshotOutput out = new SnapshotOutput();
+
+        List<MessageRecord> messages = mm.getMessages();
+        out.writeVarInt(mm.getNextId());
+        out.writeVarInt(messages.size());
+        int lastId = -1;
+        for (MessageRecord message : messages) {
+            // ids only increase, so the gap since the last one is written instead, which is usually 1
+            out.writeVarInt(message.getId() - lastId);
+            lastId = message.getId();
+            out.writeVarLong(message.getContentLocation());
+            out.writeName(message.getSender());
+            out.writeName(message.getReceiver());
+            out.writeByte((message.getReadStatus() ? READ : 0) | (message.getArchivedStatus() ? ARCHIVED : 0));
+        }
+
+        List<Broadcast> broadcasts = mm.getBroadcasts();
+        out.writeVarInt(broadcasts.size());
+        for (Broadcast broadcast : broadcasts) {
+            out.writeVarInt(broadcast.getFirstId());
+            out.writeVarLong(broadcast.getContentLocation());
+            out.writeName(broadcast.getSender());
+            out.writeNames(broadcast.getReceivers());
+            out.writeBits(broadcast.getReadStatuses());
+            out.writeBits(broadcast.getArchivedStatuses());
+            out.writeBits(broadcast.getDeletedStatuses());
+        }
+
+        return out.toByteArray(SNAPSHOT_KIND);
+    }
+
+    /**
+     * Replaces the .ser file with the given contents. The old file is only replaced once the new one, and every
+     * message content it refers to, has been fully written.
+     * @param bytes - the serialized UseCase.MessageManager
+     * @return True if and only if the file was successfully written
      */
-    public void serializeMessageManager(MessageManager mm) {
+    public boolean saveBytes(byte[] bytes) {
         try {
-            OutputStream fileOut = new FileOutputStream(FILE_PATH);
-            OutputStream buffer = new BufferedOutputStream(fileOut);
-            ObjectOutput out = new ObjectOutputStream(buffer);
+            getMessageStore().force();
+
+            FileOutputStream fileOut = new FileOutputStream(TEMP_FILE_PATH);
+            fileOut.write(bytes);
+            fileOut.getFD().sync();
+            fileOut.close();
 
-            out.writeObject(mm);
-            out.close();
+            Files.move(Paths.get(TEMP_FILE_PATH), Paths.get(FILE_PATH), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            return true;
         }
         catch(IOException e) {
-            logger.log(Level.SEVERE, "out.writeObject(mm) failed.", e);
+            logger.log(Level.SEVERE, "Cannot write to " + FILE_PATH + ".", e);
+            return false;
         }
     }
 
     /**
-     * Deserializes a .ser file to a UseCase.MessageManager class instance.
+     * Deserializes a .ser file to a UseCase.MessageManager class instance. Files written by older versions of the program
+     * with default Java serialization can still be read.
      * @return a UseCase.MessageManager class instance
      */
     public MessageManager deserializeToMessageManager() {
         MessageManager mm = null;
+        long start = System.nanoTime();
         try {
-            InputStream fileIn = new FileInputStream(FILE_PATH);
-            InputStream buffer = new BufferedInputStream(fileIn);
-            ObjectInput in = new ObjectInputStream(buffer);
+            byte[] bytes = Files.readAllBytes(Paths.get(FILE_PATH));
 
-            mm = (MessageManager) in.readObject();
-            in.close();
+            if (SnapshotInput.isSnapshot(bytes)) {
+                mm = fromBytes(bytes, getMessageStore());
+            }
+            else {
+                ObjectInput in = new ObjectInputStream(new ByteArrayInputStream(bytes));
+                mm = (MessageManager) in.readObject();
+                in.close();
+                // those files kept the contents of the messages in the file itself
+                mm.moveContentsTo(getMessageStore());
+            }
         }
         catch(IOException e) {
             logger.log(Level.SEVERE, "Cannot read from input.", e);
@@ -70,6 +172,54 @@ public class MessageStorage {
         catch(ClassNotFoundException c) {
             System.out.println("UseCase.MessageManager class not found.");
         }
+        logger.log(Level.INFO, "Loaded " + FILE_PATH + " in " + (System.nanoTime() - start) / 1000000 + " ms.");
         return mm;
     }
+
+    /**
+     * Reads a UseCase.MessageManager back from a snapshot made by toBytes, without touching the .ser file.
+     * @param bytes - the snapshot
+     * @param store - where the contents of the messages are, and where those in older snapshots are moved to
+     * @return the UseCase.MessageManager in the snapshot, keeping its contents in store
+     */
+    MessageManager fromBytes(byte[] bytes, MessageStore store) throws IOException {
+        SnapshotInput in = new SnapshotInput(bytes, SNAPSHOT_KIND);
+
+        List<MessageRecord> messages = new ArrayList<>();
+        int nextId = in.getVersion() < 3 ? -1 : in.readVarInt();
+        int messageCount = in.readVarInt();
+        int id = -1;
+        for (int i = 0; i < messageCount; i++) {
+            // a message's id used to be its position
+            id = in.getVersion() < 3 ? i : id + in.readVarInt();
+
+            long location;
+            if (in.getVersion() < 2) {
+                // contents used to be in the snapshot itself, so they are moved to the store
+                location = store.append(in.readText());
+            }
+            else {
+                location = in.readVarLong();
+            }
+            String sender = in.readName();
+            String receiver = in.readName();
+
+            int status = in.readByte();
+            messages.add(new MessageRecord(id, sender, receiver, location, (status & READ) != 0,
+                    (status & ARCHIVED) != 0));
+        }
+
+        List<Broadcast> broadcasts = new ArrayList<>();
+        int broadcastCount = in.getVersion() < 4 ? 0 : in.readVarInt();
+        for (int i = 0; i < broadcastCount; i++) {
+            int firstId = in.readVarInt();
+            long location = in.readVarLong();
+            String sender = in.readName();
+            List<String> receivers = in.readNames();
+            broadcasts.add(new Broadcast(firstId, sender, receivers, location, in.readBits(), in.readBits(),
+                    in.readBits()));
+        }
+
+        return new MessageManager(store, messages, broadcasts, nextId < 0 ? messageCount : nextId);
+    }
 }
@@ -1,8 +1,17 @@
 package Gateway;
 
+import Entity.Room;
+import UseCase.RoomBuilder;
 import UseCase.RoomManager;
+import Util.BoardType;
+import Util.SeatingType;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Handler;
 import java.util.logging.Level;
@@ -11,6 +20,15 @@ import java.util.logging.Logger;
 public class RoomStorage {
 
     private final String FILE_PATH = "StoredRoomManager.ser";
+    private final String TEMP_FILE_PATH = FILE_PATH + ".tmp";
+
+    // Marks a snapshot as being of a UseCase.RoomManager
+    private final int SNAPSHOT_KIND = 'R';
+
+    // The bits of the amenities byte of each room
+    private final int SPEAKERPHONE = 1;
+    private final int PROJECTOR = 2;
+    private final int FOOD = 4;
 
     // final because every Gateway.RoomStorage class will have the same logger
     private final static Logger logger = Logger.getLogger(RoomStorage.class.getName());
@@ -20,6 +38,10 @@ public class RoomStorage {
      * Create a new Gateway.RoomStorage instance
      */
     public RoomStorage() {
+        // the timings of loading are logged at INFO, so the log is shown only through this handler, and the handler is
+        // added once however many of this class are made, for each record to be printed once
+        logger.setUseParentHandlers(false);
+        logger.removeHandler(handler);
         logger.addHandler(handler);
     }
 
@@ -33,36 +55,95 @@ public class RoomStorage {
     }
 
     /**
-     * Serializes a UseCase.RoomManager
+     * Serializes a UseCase.RoomManager. The .ser file is only replaced once the new one has been fully written.
      * @param rm - UseCase.RoomManager to be serialized
+     * @return True if and only if the UseCase.RoomManager was successfully saved
      */
-    public void serializeRoomManager(RoomManager rm) {
+    public boolean serializeRoomManager(RoomManager rm) {
         try {
-            OutputStream fileOut = new FileOutputStream(FILE_PATH);
-            OutputStream buffer = new BufferedOutputStream(fileOut);
-            ObjectOutput out = new ObjectOutputStream(buffer);
+            return saveBytes(toBytes(rm));
+        }
+        catch(IOException e) {
+            logger.log(Level.SEVERE, "Cannot serialize UseCase.RoomManager.", e);
+            return false;
+        }
+    }
 
-            out.writeObject(rm);
-            out.close();
+    /**
+     * Serializes a UseCase.RoomManager in memory, without touching the .ser file.
+     * @param rm - UseCase.RoomManager to be serialized
+     * @return the contents of the .ser file for this UseCase.RoomManager
+     */
+    public byte[] toBytes(RoomManager rm) throws IOException {
+        SnapshotOutput out = new SnapshotOutput();
+
+        out.writeVarInt(rm.getRooms().size());
+        for (Room room : rm.getRooms()) {
+            out.writeName(room.getRoomCode());
+            out.writeVarInt(room.getCapacity());
+            out.writeName(room.getBoard().name());
+            out.writeName(room.getSeatingArrangement().name());
+
+            int amenities = 0;
+            if (room.hasSharedSpeakerphone()) {
+                amenities |= SPEAKERPHONE;
+            }
+            if (room.hasProjector()) {
+                amenities |= PROJECTOR;
+            }
+            if (room.canGetFood()) {
+                amenities |= FOOD;
+            }
+            out.writeByte(amenities);
+
+            out.writeNames(room.getEvents());
+        }
+
+        return out.toByteArray(SNAPSHOT_KIND);
+    }
+
+    /**
+     * Replaces the .ser file with the given contents. The old file is only replaced once the new one has been fully
+     * written.
+     * @param bytes - the serialized UseCase.RoomManager
+     * @return True if and only if the file was successfully written
+     */
+    public boolean saveBytes(byte[] bytes) {
+        try {
+            FileOutputStream fileOut = new FileOutputStream(TEMP_FILE_PATH);
+            fileOut.write(bytes);
+            fileOut.getFD().sync();
+            fileOut.close();
+
+            Files.move(Paths.get(TEMP_FILE_PATH), Paths.get(FILE_PATH), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            return true;
         }
         catch(IOException e) {
-            logger.log(Level.SEVERE, "out.writeObject(rm) failed.", e);
+            logger.log(Level.SEVERE, "Cannot write to " + FILE_PATH + ".", e);
+            return false;
         }
     }
 
     /**
-     * Deserializes a .ser file to a UseCase.RoomManager class instance.
+     * Deserializes a .ser file to a UseCase.RoomManager class instance. Files written by older versions of the program
+     * with default Java serialization can still be read.
      * @return a UseCase.RoomManager class instance
      */
     public RoomManager deserializeToRoomManager() {
         RoomManager rm = null;
+        long start = System.nanoTime();
         try {
-            InputStream fileIn = new FileInputStream(FILE_PATH);
-            InputStream buffer = new BufferedInputStream(fileIn);
-            ObjectInput in = new ObjectInputStream(buffer);
+            byte[] bytes = Files.readAllBytes(Paths.get(FILE_PATH));
 
-            rm = (RoomManager) in.readObject();
-            in.close();
+            if (SnapshotInput.isSnapshot(bytes)) {
+                rm = fromBytes(bytes);
+            }
+            else {
+                ObjectInput in = new ObjectInputStream(new ByteArrayInputStream(bytes));
+                rm = (RoomManager) in.readObject();
+                in.close();
+            }
         }
         catch(IOException e) {
             logger.log(Level.SEVERE, "Cannot read from input.", e);
@@ -70,6 +151,37 @@ public class RoomStorage {
         catch(ClassNotFoundException c) {
             System.out.println("UseCase.RoomManager class not found.");
         }
+        logger.log(Level.INFO, "Loaded " + FILE_PATH + " in " + (System.nanoTime() - start) / 1000000 + " ms.");
         return rm;
     }
+
+    /**
+     * Reads a UseCase.RoomManager back from a snapshot made by toBytes, without touching the .ser file.
+     * @param bytes - the snapshot
+     * @return the UseCase.RoomManager in the snapshot
+     */
+    RoomManager fromBytes(byte[] bytes) throws IOException {
+        SnapshotInput in = new SnapshotInput(bytes, SNAPSHOT_KIND);
+
+        List<Room> rooms = new ArrayList<>();
+        int roomCount = in.readVarInt();
+        for (int i = 0; i < roomCount; i++) {
+            RoomBuilder roomBuilder = new RoomBuilder();
+            roomBuilder.buildRoomCode(in.readName());
+            roomBuilder.buildCapacity(in.readVarInt());
+            roomBuilder.buildBoard(BoardType.valueOf(in.readName()));
+            roomBuilder.buildSeats(SeatingType.valueOf(in.readName()));
+
+            int amenities = in.readByte();
+            roomBuilder.buildSpeakerphone((amenities & SPEAKERPHONE) != 0);
+            roomBuilder.buildProjector((amenities & PROJECTOR) != 0);
+            roomBuilder.buildFood((amenities & FOOD) != 0);
+
+            Room room = roomBuilder.getRoom();
+            room.addEvents(in.readNames());
+            rooms.add(room);
+        }
+
+        return new RoomManager(rooms);
+    }
 }
\ No newline at end of file
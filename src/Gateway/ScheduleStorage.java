@@ -1,36 +1,139 @@
 package Gateway;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 public class ScheduleStorage {
 
+    /**
+     * Something which writes a schedule out as it generates it
+     */
+    @FunctionalInterface
+    public interface Renderer {
+        /**
+         * Writes the schedule.
+         * @param out - where the schedule is written
+         * @throws IOException if writing to out fails
+         */
+        void render(Writer out) throws IOException;
+    }
+
     /**
      * Saves the schedule
      * @param codeStr string of code
      * @param outputPath location to save it
      */
     public boolean saveSchedule(String codeStr, String outputPath) {
+        return saveSchedule(out -> out.write(codeStr), outputPath);
+    }
+
+    /**
+     * Saves the schedule, which is written straight to the file through a buffer as it is rendered, so that it is
+     * never held in memory as a whole
+     * @param renderer writes the schedule
+     * @param outputPath location to save it
+     */
+    public boolean saveSchedule(Renderer renderer, String outputPath) {
+        return save(out -> {
+            renderer.render(out);
+            out.write(System.lineSeparator());
+        }, getProperPath(outputPath, "Schedule.html"));
+    }
+
+    /**
+     * Saves a schedule in the iCalendar format, which is written straight to the file through a buffer as it is
+     * rendered
+     * @param renderer writes the calendar
+     * @param outputPath location to save it; a directory, or a file ending in .ics
+     */
+    public boolean saveCalendar(Renderer renderer, String outputPath) {
+        return save(renderer, getProperPath(outputPath, "Schedule.ics"));
+    }
+
+    /**
+     * Saves many schedules into one directory at once, spreading the work over a fork-join pool. Each schedule is
+     * saved as its name followed by .html, with any character not safe in a file name replaced by _, and numbered if
+     * that would be the same file as another schedule's. The renderers must be safe to run on several threads at once.
+     * @param renderers the schedules to save, by name
+     * @param directoryPath the directory to save them in, which is created if it does not exist
+     * @return the number of schedules which were saved, each to a file of its own
+     */
+    public int saveSchedules(Map<String, Renderer> renderers, String directoryPath) {
+        Path directory = Paths.get(directoryPath);
         try {
-            Path file = Paths.get(getProperPath(outputPath));
-            Files.write(file, Collections.singleton(codeStr), StandardCharsets.UTF_8);
+            Files.createDirectories(directory);
+        } catch (IOException ioe) {
+            return 0;
+        }
+
+        // the file names are all chosen before any is written, in order of name so that they are the same every time;
+        // names which are safe as they are take the file of the same name first, so that no numbered name takes it
+        Map<Path, Renderer> files = new HashMap<>();
+        Set<String> takenFileNames = new HashSet<>();
+        List<String> numberedNames = new ArrayList<>();
+        for (String name : new TreeSet<>(renderers.keySet())) {
+            String fileName = name + ".html";
+            if (name.equals(getSafeName(name)) && takenFileNames.add(fileName.toLowerCase(Locale.ROOT))) {
+                files.put(directory.resolve(fileName), renderers.get(name));
+            }
+            else {
+                numberedNames.add(name);
+            }
+        }
+        for (String name : numberedNames) {
+            files.put(directory.resolve(getFileName(name, takenFileNames)), renderers.get(name));
+        }
+
+        return (int) files.entrySet().parallelStream()
+                .filter(schedule -> saveSchedule(schedule.getValue(), schedule.getKey().toString()))
+                .count();
+    }
+
+    // A name which is safe to use as a file name, ending in .html, and which is not the same file as any name in
+    // taken, even where file names ignore case; it is added to taken
+    private String getFileName(String name, Set<String> taken) {
+        String safeName = getSafeName(name);
+        String fileName = safeName + ".html";
+        for (int number = 2; !taken.add(fileName.toLowerCase(Locale.ROOT)); number++) {
+            fileName = safeName + "-" + number + ".html";
+        }
+        return fileName;
+    }
+
+    // The name with every character which is not safe in a file name replaced by _
+    private String getSafeName(String name) {
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private boolean save(Renderer renderer, String path) {
+        try (Writer out = Files.newBufferedWriter(Paths.get(path), StandardCharsets.UTF_8)) {
+            renderer.render(out);
             return true;
         } catch (IOException ioe) {
             return false;
         }
     }
 
-    private String getProperPath(String path) {
-        if (path.endsWith(".html")) {
+    // The path itself if it is a file of the same kind as defaultFile, and otherwise defaultFile in that directory
+    private String getProperPath(String path, String defaultFile) {
+        if (path.endsWith(defaultFile.substring(defaultFile.lastIndexOf('.')))) {
             return path;
         } else if (path.endsWith("/")) {
-            return path + "Schedule.html";
+            return path + defaultFile;
         } else {
-            return path + "/Schedule.html";
+            return path + "/" + defaultFile;
         }
     }
 }
@@ -0,0 +1,139 @@
+package Gateway;
+
+import UseCase.MessageStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.ConsoleHandler;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// This class keeps message contents in append-only segment files which are read and written through memory maps,
+// so the contents take up no space on the heap. A location is the number of the segment in the upper 32 bits and the
+// offset of the content within it in the lower 32 bits.
+// Each segment starts with the number of bytes used so far, followed by the contents, each prefixed by its length.
+public class SegmentedMessageStore implements MessageStore {
+
+    private final String DIRECTORY_PATH;
+
+    // How large each segment file is; a content larger than this gets a segment of its own
+    private final int SEGMENT_SIZE = 8 * 1024 * 1024;
+
+    // Bytes at the start of each segment holding how many bytes of it are used
+    private final int HEADER_SIZE = Integer.BYTES;
+
+    // The memory map of every segment, by segment number
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+    // The segments written to since they were last forced to disk
+    private final Set<Integer> unforcedSegments = new HashSet<>();
+
+    // final because every Gateway.SegmentedMessageStore class will have the same logger
+    private final static Logger logger = Logger.getLogger(SegmentedMessageStore.class.getName());
+    private static final Handler handler = new ConsoleHandler();
+
+    /**
+     * Opens the segments in the given directory, creating it if it does not exist.
+     * @param directoryPath - the directory the segment files are kept in
+     */
+    public SegmentedMessageStore(String directoryPath) {
+        logger.addHandler(handler);
+        DIRECTORY_PATH = directoryPath;
+
+        new File(DIRECTORY_PATH).mkdirs();
+        try {
+            for (int number = 0; getSegmentFile(number).exists(); number++) {
+                segments.add(map(number, Math.max((int) getSegmentFile(number).length(), SEGMENT_SIZE)));
+            }
+        }
+        catch (IOException e) {
+            logger.log(Level.SEVERE, "Cannot open message segments.", e);
+        }
+    }
+
+    /**
+     * Stores the content of a message at the end of the last segment.
+     * @param content - the content being stored
+     * @return where the content was stored
+     */
+    @Override
+    public synchronized long append(String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        int needed = Integer.BYTES + bytes.length;
+
+        try {
+            int number = segments.size() - 1;
+            if (number < 0 || getUsed(segments.get(number)) + needed > segments.get(number).capacity()) {
+                number = segments.size();
+                segments.add(map(number, Math.max(SEGMENT_SIZE, HEADER_SIZE + needed)));
+            }
+
+            MappedByteBuffer segment = segments.get(number);
+            int offset = getUsed(segment);
+
+            segment.putInt(offset, bytes.length);
+            segment.put(offset + Integer.BYTES, bytes);
+            // the header is only moved past the content once the content is written
+            segment.putInt(0, offset + needed);
+            unforcedSegments.add(number);
+
+            return (long) number << 32 | offset;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Cannot write message segment.", e);
+        }
+    }
+
+    /**
+     * Reads back the content of a message.
+     * @param location - where the content was stored, as returned by append
+     * @return the content of the message
+     */
+    @Override
+    public synchronized String read(long location) {
+        ByteBuffer segment = segments.get((int) (location >>> 32));
+        int offset = (int) location;
+
+        byte[] bytes = new byte[segment.getInt(offset)];
+        segment.get(offset + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Forces every content appended so far to disk. Anything which refers to those contents (such as a snapshot)
+     * must only be saved after this.
+     */
+    public synchronized void force() {
+        for (int number : unforcedSegments) {
+            segments.get(number).force();
+        }
+        unforcedSegments.clear();
+    }
+
+    private int getUsed(MappedByteBuffer segment) {
+        int used = segment.getInt(0);
+        return used < HEADER_SIZE ? HEADER_SIZE : used;
+    }
+
+    private File getSegmentFile(int number) {
+        return new File(DIRECTORY_PATH, String.format("segment-%05d.dat", number));
+    }
+
+    // The mapping stays valid after the channel is closed
+    private MappedByteBuffer map(int number, int size) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(getSegmentFile(number), "rw")) {
+            return file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+}
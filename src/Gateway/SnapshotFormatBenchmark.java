@@ -0,0 +1,212 @@
+package Gateway;
+
+import UseCase.EventManager;
+import UseCase.MessageManager;
+import UseCase.MessageStore;
+import UseCase.RoomBuilder;
+import UseCase.RoomManager;
+import UseCase.SpeakerBuilder;
+import UseCase.TalkBuilder;
+import UseCase.UserBuilder;
+import UseCase.UserManager;
+import Util.BoardType;
+import Util.PermissionLevel;
+import Util.SeatingType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Collections;
+
+// This class compares the snapshots the storages write with default Java serialization of the same managers, which
+// is what versions of the program before the snapshot format wrote to the .ser files. The managers hold a sample
+// conference of 300 users, 30 rooms, 30 talks with 100 attendees each and 2000 messages, times the scale given; for
+// each manager it prints the size of both forms and the time taken to write and to read each of them. Everything is
+// done in memory, so no file of the program is touched.
+// Run it with "java Gateway.SnapshotFormatBenchmark [scale]"; it stops with an exception if a manager cannot be read back.
+public class SnapshotFormatBenchmark {
+
+    // The size of the sample conference at a scale of 1
+    private static final int USERS = 300;
+    private static final int TALKS = 30;
+    private static final int ATTENDEES = 100;
+    private static final int MESSAGES = 2000;
+
+    // The scale used when none is given
+    private static final int DEFAULT_SCALE = 1;
+
+    // How many times each form is written and read before timing starts, and how many times once it has
+    private static final int WARM_UP_RUNS = 50;
+    private static final int TIMED_RUNS = 50;
+
+    private static final long HOUR = 60 * 60 * 1000;
+
+    // Writes a manager in one of the two forms
+    private interface Writer {
+        byte[] write() throws IOException;
+    }
+
+    // Reads a manager back from one of the two forms
+    private interface Reader {
+        Object read(byte[] bytes) throws IOException, ClassNotFoundException;
+    }
+
+    /**
+     * Builds the sample conference and compares the two forms for each of its managers.
+     * @param args Runtime arguments of the program; optionally the scale of the sample conference.
+     * @throws IOException if a manager cannot be written or read in either form
+     * @throws ClassNotFoundException if a serialized manager names a class which cannot be found
+     */
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        int scale = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SCALE;
+
+        UserManager userManager = new UserManager(Collections.emptyList(), Collections.emptyList());
+        EventManager eventManager = new EventManager();
+        RoomManager roomManager = new RoomManager();
+        MessageManager messageManager = new MessageManager();
+        buildConference(scale, userManager, eventManager, roomManager, messageManager);
+
+        UserStorage userStorage = new UserStorage();
+        EventStorage eventStorage = new EventStorage();
+        RoomStorage roomStorage = new RoomStorage();
+        MessageStorage messageStorage = new MessageStorage();
+        // the snapshots hold where each content is, not the content itself, so nothing has to be read from the store
+        MessageStore noContents = new MessageStore() {
+            @Override
+            public long append(String content) {
+                throw new IllegalStateException("The benchmark keeps no message contents.");
+            }
+
+            @Override
+            public String read(long location) {
+                throw new IllegalStateException("The benchmark keeps no message contents.");
+            }
+        };
+
+        System.out.println("Sample conference at scale " + scale + ", times averaged over " + TIMED_RUNS + " runs:");
+        compare("users", userManager, () -> userStorage.toBytes(userManager), userStorage::fromBytes);
+        compare("events", eventManager, () -> eventStorage.toBytes(eventManager), eventStorage::fromBytes);
+        compare("rooms", roomManager, () -> roomStorage.toBytes(roomManager), roomStorage::fromBytes);
+        compare("messages", messageManager, () -> messageStorage.toBytes(messageManager),
+                bytes -> messageStorage.fromBytes(bytes, noContents));
+    }
+
+    // Fills the managers with the sample conference: speakers give the talks, every talk is full and users message
+    // each other
+    private static void buildConference(int scale, UserManager userManager, EventManager eventManager,
+                                        RoomManager roomManager, MessageManager messageManager) {
+        int users = USERS * scale;
+        int talks = TALKS * scale;
+
+        for (int i = 0; i < users; i++) {
+            UserBuilder userBuilder = i < talks ? new SpeakerBuilder() : new UserBuilder();
+            userBuilder.buildUsername(getUsername(i));
+            userBuilder.buildPassword("password" + i);
+            if (i < talks) {
+                userBuilder.buildPermissionLevel(PermissionLevel.SPEAKER);
+                userManager.createSpeaker((SpeakerBuilder) userBuilder);
+            }
+            else {
+                userBuilder.buildPermissionLevel(i % 10 == 0 ? PermissionLevel.VIP : PermissionLevel.ATTENDEE);
+                userManager.createNonSpeaker(userBuilder);
+            }
+        }
+
+        for (int i = 0; i < talks; i++) {
+            RoomBuilder roomBuilder = new RoomBuilder();
+            roomBuilder.buildRoomCode("R" + i);
+            roomBuilder.buildCapacity(ATTENDEES);
+            roomBuilder.buildBoard(BoardType.values()[i % BoardType.values().length]);
+            roomBuilder.buildSeats(SeatingType.values()[i % SeatingType.values().length]);
+            roomBuilder.buildProjector(i % 2 == 0);
+            roomManager.createRoom(roomBuilder);
+
+            // each talk is an hour after the one before, so that the same users can attend all of them
+            String talkName = "talk" + i;
+            TalkBuilder talkBuilder = new TalkBuilder();
+            talkBuilder.buildName(talkName);
+            talkBuilder.buildStartTime(i * HOUR);
+            talkBuilder.buildRoomCode("R" + i);
+            talkBuilder.buildCapacity(ATTENDEES);
+            talkBuilder.buildSpeaker(getUsername(i));
+            eventManager.createTalk(talkBuilder);
+            userManager.addEventToSpeaker(getUsername(i), talkName, new long[]{i * HOUR, (i + 1) * HOUR});
+
+            for (int j = 0; j < ATTENDEES; j++) {
+                String attendee = getUsername(talks + (i * 7 + j) % (users - talks));
+                if (!eventManager.signUpForEvent(attendee, talkName, userManager)) {
+                    throw new IllegalStateException(attendee + " could not sign up for " + talkName + ".");
+                }
+            }
+        }
+
+        for (int i = 0; i < MESSAGES * scale; i++) {
+            messageManager.messageUser("Message number " + i + " of the sample conference.", getUsername(i % users),
+                    getUsername((i * 7 + 1) % users));
+        }
+    }
+
+    // Prints the size of both forms of the manager and the time taken to write and read each of them
+    private static void compare(String name, Serializable manager, Writer snapshotWriter, Reader snapshotReader)
+            throws IOException, ClassNotFoundException {
+        Writer serializedWriter = () -> serialize(manager);
+        Reader serializedReader = SnapshotFormatBenchmark::deserialize;
+
+        byte[] snapshot = snapshotWriter.write();
+        byte[] serialized = serializedWriter.write();
+        if (snapshotReader.read(snapshot) == null || serializedReader.read(serialized) == null) {
+            throw new IllegalStateException("The " + name + " could not be read back.");
+        }
+
+        System.out.printf("%-8s snapshot %,9d bytes, written in %7.3f ms, read in %7.3f ms%n", name,
+                snapshot.length, timeWriting(snapshotWriter), timeReading(snapshotReader, snapshot));
+        System.out.printf("%-8s default  %,9d bytes, written in %7.3f ms, read in %7.3f ms%n", "",
+                serialized.length, timeWriting(serializedWriter), timeReading(serializedReader, serialized));
+    }
+
+    // The average time in milliseconds taken to write the manager
+    private static double timeWriting(Writer writer) throws IOException {
+        for (int i = 0; i < WARM_UP_RUNS; i++) {
+            writer.write();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < TIMED_RUNS; i++) {
+            writer.write();
+        }
+        return (System.nanoTime() - start) / 1e6 / TIMED_RUNS;
+    }
+
+    // The average time in milliseconds taken to read the manager back from bytes
+    private static double timeReading(Reader reader, byte[] bytes) throws IOException, ClassNotFoundException {
+        for (int i = 0; i < WARM_UP_RUNS; i++) {
+            reader.read(bytes);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < TIMED_RUNS; i++) {
+            reader.read(bytes);
+        }
+        return (System.nanoTime() - start) / 1e6 / TIMED_RUNS;
+    }
+
+    // The manager as the older versions of the program wrote it
+    private static byte[] serialize(Serializable manager) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(manager);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+
+    private static String getUsername(int number) {
+        return "user" + number;
+    }
+}
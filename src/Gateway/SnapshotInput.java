@@ -0,0 +1,122 @@
+package Gateway;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+// This class reads a manager snapshot written by Gateway.SnapshotOutput.
+class SnapshotInput {
+
+    private final DataInputStream in;
+    private final int version;
+    private final String[] dictionary;
+
+    /**
+     * Reads the header and dictionary of a snapshot.
+     * @param bytes - the whole snapshot
+     * @param kind - which manager the snapshot is expected to be of
+     * @throws IOException if the bytes are not a snapshot of that kind in a version this class can read
+     */
+    SnapshotInput(byte[] bytes, int kind) throws IOException {
+        in = new DataInputStream(new ByteArrayInputStream(bytes));
+
+        if (in.readInt() != SnapshotOutput.MAGIC) {
+            throw new IOException("Not a snapshot.");
+        }
+        version = in.readUnsignedByte();
+        if (version > SnapshotOutput.VERSION) {
+            throw new IOException("Snapshot version " + version + " is newer than this program.");
+        }
+        if (in.readUnsignedByte() != kind) {
+            throw new IOException("Snapshot is of the wrong kind of manager.");
+        }
+
+        dictionary = new String[readVarInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = readText();
+        }
+    }
+
+    /**
+     * Checks whether the given bytes start like a snapshot in this format.
+     * @param bytes - the contents of a snapshot file
+     * @return True if and only if the bytes begin with the snapshot magic number
+     */
+    static boolean isSnapshot(byte[] bytes) {
+        return bytes.length >= 4 && ((bytes[0] & 0xFF) << 24 | (bytes[1] & 0xFF) << 16 | (bytes[2] & 0xFF) << 8
+                | (bytes[3] & 0xFF)) == SnapshotOutput.MAGIC;
+    }
+
+    /**
+     * Fetches the version of the format the snapshot was written in.
+     * @return the format version
+     */
+    int getVersion() {
+        return version;
+    }
+
+    String readName() throws IOException {
+        int index = readVarInt();
+        if (index >= dictionary.length) {
+            throw new IOException("Snapshot refers to a name which is not in its dictionary.");
+        }
+        return dictionary[index];
+    }
+
+    List<String> readNames() throws IOException {
+        int count = readVarInt();
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(readName());
+        }
+        return names;
+    }
+
+    String readText() throws IOException {
+        byte[] bytes = new byte[readVarInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    BitSet readBits() throws IOException {
+        byte[] bytes = new byte[readVarInt()];
+        in.readFully(bytes);
+        return BitSet.valueOf(bytes);
+    }
+
+    int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed number in snapshot.");
+    }
+
+    long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed number in snapshot.");
+    }
+
+    long readLong() throws IOException {
+        return in.readLong();
+    }
+
+    int readByte() throws IOException {
+        return in.readUnsignedByte();
+    }
+}
@@ -0,0 +1,133 @@
+package Gateway;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// This class writes a manager snapshot in the compact binary format read by Gateway.SnapshotInput.
+// A snapshot is laid out as: header (magic number, format version, kind of manager), the dictionary of every name
+// written with writeName, then the body. Names (usernames, event names, room codes) appear over and over in the
+// managers, so in the body each one is only the index of its dictionary entry.
+class SnapshotOutput {
+
+    static final int MAGIC = 0x434D534E; // "CMSN"
+    // 1: the first version
+    // 2: message contents are kept in a Gateway.SegmentedMessageStore, and only their locations are in the snapshot
+    // 3: messages keep their ids when other messages are deleted, so the ids are in the snapshot
+    // 4: messages sent to many users at once are kept once, after the other messages
+    static final int VERSION = 4;
+
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(body);
+
+    private final Map<String, Integer> dictionaryIndex = new HashMap<>();
+    private final List<String> dictionary = new ArrayList<>();
+
+    /**
+     * Writes a name which is likely to be repeated, as a reference into the dictionary.
+     * @param name - the name being written
+     */
+    void writeName(String name) throws IOException {
+        Integer index = dictionaryIndex.get(name);
+        if (index == null) {
+            index = dictionary.size();
+            dictionaryIndex.put(name, index);
+            dictionary.add(name);
+        }
+        writeVarInt(index);
+    }
+
+    /**
+     * Writes a number of names, preceded by how many there are.
+     * @param names - the names being written
+     */
+    void writeNames(Collection<String> names) throws IOException {
+        writeVarInt(names.size());
+        for (String name : names) {
+            writeName(name);
+        }
+    }
+
+    /**
+     * Writes a string which is unlikely to be repeated (such as the content of a message) in place.
+     * @param text - the string being written
+     */
+    void writeText(String text) throws IOException {
+        writeBytes(out, text);
+    }
+
+    /**
+     * Writes a set of bits, preceded by how many bytes they take up.
+     * @param bits - the bits being written
+     */
+    void writeBits(BitSet bits) throws IOException {
+        byte[] bytes = bits.toByteArray();
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    void writeVarInt(int value) throws IOException {
+        writeVarInt(out, value);
+    }
+
+    void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    void writeLong(long value) throws IOException {
+        out.writeLong(value);
+    }
+
+    void writeByte(int value) throws IOException {
+        out.writeByte(value);
+    }
+
+    /**
+     * Puts the header, dictionary and body together.
+     * @param kind - which manager this is a snapshot of, checked when the snapshot is read back
+     * @return the finished snapshot
+     */
+    byte[] toByteArray(int kind) throws IOException {
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream(body.size() + dictionary.size() * 16 + 16);
+        DataOutputStream header = new DataOutputStream(snapshot);
+
+        header.writeInt(MAGIC);
+        header.writeByte(VERSION);
+        header.writeByte(kind);
+
+        writeVarInt(header, dictionary.size());
+        for (String name : dictionary) {
+            writeBytes(header, name);
+        }
+
+        out.flush();
+        body.writeTo(snapshot);
+        return snapshot.toByteArray();
+    }
+
+    private static void writeBytes(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    // Writes a non-negative int in as few bytes as possible, 7 bits at a time
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+}
@@ -0,0 +1,209 @@
+package Gateway;
+
+import UseCase.EventManager;
+import UseCase.MessageManager;
+import UseCase.Mutation;
+import UseCase.RoomManager;
+import UseCase.UserManager;
+import Util.MutationType;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.ConsoleHandler;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// This class keeps the .ser snapshots of the managers up to date without making the user wait for them.
+// Every action is made durable by the journal; the managers which changed are then copied in memory on the calling
+// thread, while no other thread is changing them (so the copy is consistent), and written to disk by a background
+// thread. While a write is in progress no new copy is taken, so any number of actions in that time are folded into
+// the next snapshot.
+public class SnapshotService {
+
+    // The changes recorded by the UseCase.EventManager which also change the schedules of speakers in the
+    // UseCase.UserManager, so that they make both managers need a new snapshot
+    private static final Set<MutationType> SPEAKER_MUTATIONS = EnumSet.of(MutationType.ASSIGN_SPEAKER_TO_TALK,
+            MutationType.ADD_SPEAKER_TO_DISCUSSION, MutationType.REMOVE_SPEAKER_FROM_DISCUSSION);
+
+    // The least amount of time between two snapshots, in milliseconds
+    private final long SNAPSHOT_INTERVAL = 5000;
+
+    private final JournalStorage journalStorage;
+    private final UserStorage userStorage = new UserStorage();
+    private final EventStorage eventStorage = new EventStorage();
+    private final RoomStorage roomStorage = new RoomStorage();
+    private final MessageStorage messageStorage = new MessageStorage();
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Which managers have changed since their last snapshot was taken. Guarded by dirtyLock rather than this, since
+    // the writer thread sets them again when a write fails while flush is waiting on it
+    private final Object dirtyLock = new Object();
+    private boolean userManagerDirty, eventManagerDirty, roomManagerDirty, messageManagerDirty;
+
+    private long lastSnapshotTime = 0;
+    private Future<?> inFlight;
+
+    // final because every Gateway.SnapshotService class will have the same logger
+    private final static Logger logger = Logger.getLogger(SnapshotService.class.getName());
+    private static final Handler handler = new ConsoleHandler();
+
+    /**
+     * Create a new Gateway.SnapshotService instance
+     * @param journalStorage - the Gateway.JournalStorage holding the changes not yet in a snapshot
+     */
+    public SnapshotService(JournalStorage journalStorage) {
+        this.journalStorage = journalStorage;
+        logger.addHandler(handler);
+    }
+
+    /**
+     * Writes the changes made to the managers to the journal, and starts writing a new snapshot of the changed
+     * managers in the background if the last one is finished and old enough.
+     * @param um - UseCase.UserManager of this session
+     * @param em - UseCase.EventManager of this session
+     * @param rm - UseCase.RoomManager of this session
+     * @param mm - UseCase.MessageManager of this session
+     */
+    public synchronized void commit(UserManager um, EventManager em, RoomManager rm, MessageManager mm) {
+        markDirty(um, em, rm, mm);
+        journalStorage.commit(um, em, rm, mm);
+
+        boolean busy = inFlight != null && !inFlight.isDone();
+        if (isDirty() && !busy && System.currentTimeMillis() - lastSnapshotTime >= SNAPSHOT_INTERVAL) {
+            inFlight = startSnapshot(um, em, rm, mm);
+        }
+    }
+
+    /**
+     * Writes every outstanding change to disk and waits for it to finish. Used when the program exits.
+     * @param um - UseCase.UserManager of this session
+     * @param em - UseCase.EventManager of this session
+     * @param rm - UseCase.RoomManager of this session
+     * @param mm - UseCase.MessageManager of this session
+     */
+    public synchronized void flush(UserManager um, EventManager em, RoomManager rm, MessageManager mm) {
+        markDirty(um, em, rm, mm);
+        journalStorage.commit(um, em, rm, mm);
+
+        await(inFlight);
+        if (isDirty()) {
+            await(startSnapshot(um, em, rm, mm));
+        }
+        writer.shutdown();
+    }
+
+    // Copies the changed managers and hands the copies to the writer thread
+    private Future<?> startSnapshot(UserManager um, EventManager em, RoomManager rm, MessageManager mm) {
+        final byte[] userBytes, eventBytes, roomBytes, messageBytes;
+        final long sequence;
+        // other sessions may be using the managers, so each is held while nothing is half way through changing it;
+        // in the same order as an action which uses more than one of them (an event before its users), so that
+        // neither ever waits for the other
+        em.lockExclusive();
+        um.lockExclusive();
+        rm.lockExclusive();
+        mm.lockExclusive();
+        try {
+            // a manager which was clean when this snapshot was asked for may have been changed by another session
+            // since; its change is numbered within the sequence below, so it has to be in the copies too
+            markDirty(um, em, rm, mm);
+
+            // no write is in flight here, so only the calling thread touches the flags
+            userBytes = userManagerDirty ? userStorage.toBytes(um) : null;
+            eventBytes = eventManagerDirty ? eventStorage.toBytes(em) : null;
+            roomBytes = roomManagerDirty ? roomStorage.toBytes(rm) : null;
+            messageBytes = messageManagerDirty ? messageStorage.toBytes(mm) : null;
+
+            // everything up to here is in the copies, so later changes start a new journal
+            sequence = Mutation.getLastSequence();
+            journalStorage.rotate();
+        }
+        catch (IOException e) {
+            logger.log(Level.SEVERE, "Cannot copy managers for snapshot.", e);
+            return null;
+        }
+        finally {
+            mm.unlockExclusive();
+            rm.unlockExclusive();
+            um.unlockExclusive();
+            em.unlockExclusive();
+        }
+
+        synchronized (dirtyLock) {
+            userManagerDirty = eventManagerDirty = roomManagerDirty = messageManagerDirty = false;
+        }
+        lastSnapshotTime = System.currentTimeMillis();
+
+        return writer.submit(() -> {
+            boolean saved = true;
+            if (userBytes != null && !userStorage.saveBytes(userBytes)) {
+                saved = false;
+                setDirty(true, false, false, false);
+            }
+            if (eventBytes != null && !eventStorage.saveBytes(eventBytes)) {
+                saved = false;
+                setDirty(false, true, false, false);
+            }
+            if (roomBytes != null && !roomStorage.saveBytes(roomBytes)) {
+                saved = false;
+                setDirty(false, false, true, false);
+            }
+            if (messageBytes != null && !messageStorage.saveBytes(messageBytes)) {
+                saved = false;
+                setDirty(false, false, false, true);
+            }
+
+            // the rotated journal is only thrown away once every copy is safely on disk
+            if (saved) {
+                journalStorage.markSnapshotted(sequence);
+            }
+        });
+    }
+
+    private void markDirty(UserManager um, EventManager em, RoomManager rm, MessageManager mm) {
+        setDirty(um.hasPendingMutations() || em.hasPendingMutations(SPEAKER_MUTATIONS), em.hasPendingMutations(),
+                rm.hasPendingMutations(), mm.hasPendingMutations());
+    }
+
+    private void setDirty(boolean user, boolean event, boolean room, boolean message) {
+        synchronized (dirtyLock) {
+            userManagerDirty |= user;
+            eventManagerDirty |= event;
+            roomManagerDirty |= room;
+            messageManagerDirty |= message;
+        }
+    }
+
+    private boolean isDirty() {
+        synchronized (dirtyLock) {
+            return userManagerDirty || eventManagerDirty || roomManagerDirty || messageManagerDirty;
+        }
+    }
+
+    private void await(Future<?> future) {
+        if (future == null) {
+            return;
+        }
+
+        try {
+            future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException e) {
+            logger.log(Level.SEVERE, "Snapshot failed.", e.getCause());
+        }
+    }
+}
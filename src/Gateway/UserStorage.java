@@ -1,8 +1,20 @@
 package Gateway;
 
+import Entity.Speaker;
+import Entity.User;
+import UseCase.SpeakerBuilder;
+import UseCase.UserBuilder;
 import UseCase.UserManager;
+import Util.PermissionLevel;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Handler;
 import java.util.logging.Level;
@@ -11,6 +23,10 @@ import java.util.logging.Logger;
 public class UserStorage {
 
     private final String FILE_PATH = "StoredUserManager.ser";
+    private final String TEMP_FILE_PATH = FILE_PATH + ".tmp";
+
+    // Marks a snapshot as being of a UseCase.UserManager
+    private final int SNAPSHOT_KIND = 'U';
 
     // final because every Gateway.UserStorage class will have the same logger
     private final static Logger logger = Logger.getLogger(UserStorage.class.getName());
@@ -20,6 +36,10 @@ public class UserStorage {
      * Create a new Gateway.UserStorage instance
      */
     public UserStorage() {
+        // the timings of loading are logged at INFO, so the log is shown only through this handler, and the handler is
+        // added once however many of this class are made, for each record to be printed once
+        logger.setUseParentHandlers(false);
+        logger.removeHandler(handler);
         logger.addHandler(handler);
     }
 
@@ -33,36 +53,98 @@ public class UserStorage {
     }
 
     /**
-     * Serializes a UseCase.UserManager
+     * Serializes a UseCase.UserManager. The .ser file is only replaced once the new one has been fully written.
      * @param um - UseCase.UserManager to be serialized
+     * @return True if and only if the UseCase.UserManager was successfully saved
      */
-    public void serializeUserManager(UserManager um) {
+    public boolean serializeUserManager(UserManager um) {
         try {
-            OutputStream fileOut = new FileOutputStream(FILE_PATH);
-            OutputStream buffer = new BufferedOutputStream(fileOut);
-            ObjectOutput out = new ObjectOutputStream(buffer);
+            return saveBytes(toBytes(um));
+        }
+        catch(IOException e) {
+            logger.log(Level.SEVERE, "Cannot serialize UseCase.UserManager.", e);
+            return false;
+        }
+    }
 
-            out.writeObject(um);
-            out.close();
+    /**
+     * Serializes a UseCase.UserManager in memory, without touching the .ser file.
+     * @param um - UseCase.UserManager to be serialized
+     * @return the contents of the .ser file for this UseCase.UserManager
+     */
+    public byte[] toBytes(UserManager um) throws IOException {
+        SnapshotOutput out = new SnapshotOutput();
+
+        List<User> nonSpeakers = new ArrayList<>();
+        for (User user : um.getUsers()) {
+            if (!(user instanceof Speaker)) {
+                nonSpeakers.add(user);
+            }
+        }
+
+        out.writeVarInt(nonSpeakers.size());
+        for (User user : nonSpeakers) {
+            writeUser(out, user);
+        }
+
+        Set<Speaker> speakers = um.getSpeakers();
+        out.writeVarInt(speakers.size());
+        for (Speaker speaker : speakers) {
+            writeUser(out, speaker);
+
+            out.writeVarInt(speaker.getSchedule().size());
+            for (Map.Entry<String, long[]> talk : speaker.getSchedule().entrySet()) {
+                out.writeName(talk.getKey());
+                out.writeLong(talk.getValue()[0]);
+                out.writeLong(talk.getValue()[1]);
+            }
+        }
+
+        return out.toByteArray(SNAPSHOT_KIND);
+    }
+
+    /**
+     * Replaces the .ser file with the given contents. The old file is only replaced once the new one has been fully
+     * written.
+     * @param bytes - the serialized UseCase.UserManager
+     * @return True if and only if the file was successfully written
+     */
+    public boolean saveBytes(byte[] bytes) {
+        try {
+            FileOutputStream fileOut = new FileOutputStream(TEMP_FILE_PATH);
+            fileOut.write(bytes);
+            fileOut.getFD().sync();
+            fileOut.close();
+
+            Files.move(Paths.get(TEMP_FILE_PATH), Paths.get(FILE_PATH), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            return true;
         }
         catch(IOException e) {
-            logger.log(Level.SEVERE, "out.writeObject(um) failed.", e);
+            logger.log(Level.SEVERE, "Cannot write to " + FILE_PATH + ".", e);
+            return false;
         }
     }
 
     /**
-     * Deserializes a .ser file to a UseCase.UserManager class instance.
+     * Deserializes a .ser file to a UseCase.UserManager class instance. Files written by older versions of the program
+     * with default Java serialization can still be read.
      * @return a UseCase.UserManager class instance
      */
     public UserManager deserializeToUserManager() {
         UserManager um = null;
+        long start = System.nanoTime();
         try {
-            InputStream fileIn = new FileInputStream(FILE_PATH);
-            InputStream buffer = new BufferedInputStream(fileIn);
-            ObjectInput in = new ObjectInputStream(buffer);
+            byte[] bytes = Files.readAllBytes(Paths.get(FILE_PATH));
 
-            um = (UserManager) in.readObject();
-            in.close();
+            if (SnapshotInput.isSnapshot(bytes)) {
+                um = fromBytes(bytes);
+            }
+            else {
+                ObjectInput in = new ObjectInputStream(new ByteArrayInputStream(bytes));
+                um = (UserManager) in.readObject();
+                in.close();
+            }
         }
         catch(IOException e) {
             logger.log(Level.SEVERE, "Cannot read from input.", e);
@@ -70,6 +152,58 @@ public class UserStorage {
         catch(ClassNotFoundException c) {
             System.out.println("UseCase.UserManager class not found.");
         }
+        logger.log(Level.INFO, "Loaded " + FILE_PATH + " in " + (System.nanoTime() - start) / 1000000 + " ms.");
         return um;
     }
+
+    /**
+     * Reads a UseCase.UserManager back from a snapshot made by toBytes, without touching the .ser file.
+     * @param bytes - the snapshot
+     * @return the UseCase.UserManager in the snapshot
+     */
+    UserManager fromBytes(byte[] bytes) throws IOException {
+        SnapshotInput in = new SnapshotInput(bytes, SNAPSHOT_KIND);
+
+        List<User> nonSpeakers = new ArrayList<>();
+        int nonSpeakerCount = in.readVarInt();
+        for (int i = 0; i < nonSpeakerCount; i++) {
+            UserBuilder userBuilder = new UserBuilder();
+            nonSpeakers.add(readUser(in, userBuilder));
+        }
+
+        List<Speaker> speakers = new ArrayList<>();
+        int speakerCount = in.readVarInt();
+        for (int i = 0; i < speakerCount; i++) {
+            SpeakerBuilder speakerBuilder = new SpeakerBuilder();
+            Speaker speaker = (Speaker) readUser(in, speakerBuilder);
+
+            int talkCount = in.readVarInt();
+            for (int j = 0; j < talkCount; j++) {
+                String eventName = in.readName();
+                long[] timeOfSpeech = {in.readLong(), in.readLong()};
+                speaker.assignEvent(eventName, timeOfSpeech);
+            }
+            speakers.add(speaker);
+        }
+
+        return new UserManager(nonSpeakers, speakers);
+    }
+
+    // The fields shared by every kind of user
+    private void writeUser(SnapshotOutput out, User user) throws IOException {
+        out.writeName(user.getUsername());
+        out.writeText(user.getPassword());
+        out.writeName(user.getPermissionLevel().name());
+        out.writeNames(user.getEventList());
+    }
+
+    private User readUser(SnapshotInput in, UserBuilder userBuilder) throws IOException {
+        userBuilder.buildUsername(in.readName());
+        userBuilder.buildPassword(in.readText());
+        userBuilder.buildPermissionLevel(PermissionLevel.valueOf(in.readName()));
+
+        User user = userBuilder.getInstance();
+        user.addEvents(in.readNames());
+        return user;
+    }
 }
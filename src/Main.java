@@ -1,71 +1,99 @@
 import Controller.LoginSystem;
+import Controller.SessionServer;
 import Gateway.EventStorage;
+import Gateway.JournalStorage;
 import Gateway.MessageStorage;
 import Gateway.RoomStorage;
+import Gateway.SnapshotService;
 import Gateway.UserStorage;
 import UseCase.EventManager;
 import UseCase.MessageManager;
 import UseCase.RoomManager;
 import UseCase.UserManager;
 
+import java.util.concurrent.CompletableFuture;
+
 public class Main {
 
+    // The port sessions are accepted on in server mode, unless another is given
+    private static final int DEFAULT_PORT = 4000;
+
     /**
      * Main method of the program.
-     * @param args Runtime arguments of the program.
+     * @param args Runtime arguments of the program. "--server" (optionally followed by a port) accepts sessions over
+     *             local TCP connections instead of running one session on the terminal.
      */
     public static void main(String[] args) {
-        LoginSystem loginSystem = new LoginSystem();
         UserStorage userStorage = new UserStorage();
         EventStorage eventStorage = new EventStorage();
         MessageStorage messageStorage = new MessageStorage();
         RoomStorage roomStorage = new RoomStorage();
+        JournalStorage journalStorage = new JournalStorage();
 
-        UserManager userManager;
-        EventManager eventManager;
-        MessageManager messageManager;
-        RoomManager roomManager;
+        // Loads the four Managers at the same time
+        CompletableFuture<UserManager> userLoad = CompletableFuture.supplyAsync(() -> {
+            if (userStorage.isSerialized()) {
+                return requireLoaded(userStorage.deserializeToUserManager(), "users");
+            }
+            return new UserManager();
+        });
 
-        // Creates a UseCase.UserManager
-        if (userStorage.isSerialized()) {
-            userManager = userStorage.deserializeToUserManager();
-        }
-        else {
-            userManager = new UserManager();
-        }
+        CompletableFuture<EventManager> eventLoad = CompletableFuture.supplyAsync(() -> {
+            if (eventStorage.isSerialized()) {
+                return requireLoaded(eventStorage.deserializeToEventManager(), "events");
+            }
+            return new EventManager();
+        });
 
-        // Creates an UseCase.EventManager
-        if (eventStorage.isSerialized()) {
-            eventManager = eventStorage.deserializeToEventManager();
-        }
-        else {
-            eventManager = new EventManager();
-        }
+        CompletableFuture<MessageManager> messageLoad = CompletableFuture.supplyAsync(() -> {
+            if (messageStorage.isSerialized()) {
+                return requireLoaded(messageStorage.deserializeToMessageManager(), "messages");
+            }
+            return new MessageManager(MessageStorage.getMessageStore());
+        });
 
-        // Creates a UseCase.MessageManager
-        if(messageStorage.isSerialized()) {
-            messageManager = messageStorage.deserializeToMessageManager();
-        }
-        else {
-            messageManager = new MessageManager();
-        }
+        CompletableFuture<RoomManager> roomLoad = CompletableFuture.supplyAsync(() -> {
+            if (roomStorage.isSerialized()) {
+                return requireLoaded(roomStorage.deserializeToRoomManager(), "rooms");
+            }
+            return new RoomManager();
+        });
+
+        // The login screen only needs these; the UseCase.MessageManager keeps loading in the background
+        UserManager userManager = userLoad.join();
+        EventManager eventManager = eventLoad.join();
+        RoomManager roomManager = roomLoad.join();
+
+        // Brings the Managers up to date with the changes made after the last snapshot
+        CompletableFuture<MessageManager> messageManagerLoad = requireLoaded(journalStorage.replay(userManager,
+                eventManager, roomManager, messageLoad), "journal");
 
-        // Creates a UseCase.RoomManager
-        if(roomStorage.isSerialized()) {
-            roomManager = roomStorage.deserializeToRoomManager();
+        SnapshotService snapshotService = new SnapshotService(journalStorage);
+        if (args.length > 0 && args[0].equals("--server")) {
+            // Accepts sessions over the network until the server is stopped
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+            SessionServer sessionServer = new SessionServer(port, snapshotService);
+            sessionServer.run(userManager, eventManager, messageManagerLoad, roomManager);
         }
         else {
-            roomManager = new RoomManager();
+            // Starts the login system
+            LoginSystem loginSystem = new LoginSystem(snapshotService);
+            loginSystem.run(userManager, eventManager, messageManagerLoad, roomManager);
         }
 
-        // Starts the login system
-        loginSystem.run(userManager, eventManager, messageManager, roomManager);
-
         // Stores the final versions of the Managers
-        userStorage.serializeUserManager(userManager);
-        eventStorage.serializeEventManager(eventManager);
-        messageStorage.serializeMessageManager(messageManager);
-        roomStorage.serializeRoomManager(roomManager);
+        snapshotService.flush(userManager, eventManager, roomManager, messageManagerLoad.join());
+
+    }
 
+    // Stops the program if saved data exists but cannot be read, rather than starting over without it and writing
+    // over the saved files on exit
+    private static <T> T requireLoaded(T loaded, String contents) {
+        if (loaded == null) {
+            System.err.println("The saved " + contents + " cannot be read (see the log above for why). Stopping so "
+                    + "that nothing is overwritten.");
+            System.exit(1);
+        }
+        return loaded;
     }
 }
@@ -0,0 +1,133 @@
+package Presenter;
+
+import UseCase.EventGrouping;
+import UseCase.EventManager;
+import UseCase.UserManager;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+// This class writes schedules in the iCalendar format (RFC 5545), which calendar programs can import. Each event is
+// written as soon as it is generated, so a calendar is never held in memory as a whole.
+public class CalendarGenerator {
+
+    // Times are written in UTC, so the calendar needs no time zone definitions
+    private final DateTimeFormatter timeFormat = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+
+    // The longest a line may be, in bytes, before it has to be folded onto the next
+    private final int LINE_LIMIT = 75;
+
+    /**
+     * Writes the calendar of an attendee
+     * @param username The username of the attendee
+     * @param eventManager The EventManager associated with this session
+     * @param userManager The UserManager associated with this session
+     * @param out Where the calendar is written
+     * @throws IOException if writing to out fails
+     */
+    public void writeAttendeeCalendar(String username, EventManager eventManager, UserManager userManager,
+                                      Writer out) throws IOException {
+        Collection<String> events = userManager.getEvents(username);
+        writeCalendar(events == null ? Collections.emptyList() : events, eventManager, out);
+    }
+
+    /**
+     * Writes the calendar of the events a speaker is speaking at
+     * @param speakerName The username of the speaker
+     * @param eventManager The EventManager associated with this session
+     * @param userManager The UserManager associated with this session
+     * @param out Where the calendar is written
+     * @throws IOException if writing to out fails
+     */
+    public void writeSpeakerCalendar(String speakerName, EventManager eventManager, UserManager userManager,
+                                     Writer out) throws IOException {
+        Collection<String> events = userManager.getHostedEvents(speakerName);
+        writeCalendar(events == null ? Collections.emptyList() : events, eventManager, out);
+    }
+
+    /**
+     * Writes the calendar of every event of the conference
+     * @param eventManager The EventManager associated with this session
+     * @param out Where the calendar is written
+     * @throws IOException if writing to out fails
+     */
+    public void writeFullCalendar(EventManager eventManager, Writer out) throws IOException {
+        writeCalendar(eventManager.getEventNames(), eventManager, out);
+    }
+
+    private void writeCalendar(Collection<String> eventNames, EventManager eventManager, Writer out)
+            throws IOException {
+        EventGrouping eventGrouping = new EventGrouping();
+        String stamp = timeFormat.format(Instant.now());
+
+        writeLine("BEGIN:VCALENDAR", out);
+        writeLine("VERSION:2.0", out);
+        writeLine("PRODID:-//CSC207 Tech Conference//Schedule//EN", out);
+        writeLine("CALSCALE:GREGORIAN", out);
+        writeLine("X-WR-CALNAME:CSC207 Tech Conference", out);
+
+        for (String event : eventGrouping.arrangeChronologically(eventNames, eventManager)) {
+            writeEvent(event, eventManager, stamp, out);
+        }
+
+        writeLine("END:VCALENDAR", out);
+    }
+
+    private void writeEvent(String event, EventManager eventManager, String stamp, Writer out) throws IOException {
+        long start = eventManager.getTimeOfEvent(event);
+        boolean vip = eventManager.isVipOnly(event);
+        List<String> speakers = new ArrayList<>(eventManager.getSpeakersAtEvent(event));
+        Collections.sort(speakers);
+
+        writeLine("BEGIN:VEVENT", out);
+        // event names are unique, so they make a stable id for calendar programs to update events by
+        writeLine("UID:" + escape(event) + "@csc207-tech-conference", out);
+        writeLine("DTSTAMP:" + stamp, out);
+        writeLine("DTSTART:" + timeFormat.format(Instant.ofEpochMilli(start)), out);
+        writeLine("DTEND:" + timeFormat.format(Instant.ofEpochMilli(start + EventManager.EVENT_LENGTH)), out);
+        writeLine("SUMMARY:" + (vip ? "[VIP] " : "") + escape(event), out);
+        writeLine("LOCATION:" + escape(eventManager.getRoomCodeOfEvent(event)), out);
+        if (!speakers.isEmpty()) {
+            writeLine("DESCRIPTION:" + escape("by " + String.join(", ", speakers)), out);
+        }
+        if (vip) {
+            writeLine("CATEGORIES:VIP", out);
+        }
+        writeLine("END:VEVENT", out);
+    }
+
+    // Escapes the characters which have a meaning of their own in a text value
+    private String escape(String text) {
+        return text.replace("\\", "\\\\").replace(";", "\\;").replace(",", "\\,")
+                .replace("\r\n", "\\n").replace("\n", "\\n").replace("\r", "\\n");
+    }
+
+    // Writes a line ending in CRLF, folding it onto continuation lines (which start with a space) wherever it would
+    // otherwise be longer than LINE_LIMIT bytes
+    private void writeLine(String line, Writer out) throws IOException {
+        int lineBytes = 0;
+        int i = 0;
+        while (i < line.length()) {
+            int codePoint = line.codePointAt(i);
+            int charCount = Character.charCount(codePoint);
+            int bytes = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+
+            if (lineBytes + bytes > LINE_LIMIT) {
+                out.write("\r\n ");
+                lineBytes = 1;
+            }
+            out.write(line, i, charCount);
+            lineBytes += bytes;
+            i += charCount;
+        }
+        out.write("\r\n");
+    }
+}
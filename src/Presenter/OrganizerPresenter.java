@@ -45,7 +45,8 @@ public class OrganizerPresenter extends UserPresenter {
         System.out.println("16. Message all users");
         System.out.println("17. See summary statistics");
         System.out.println("18. Save schedule");
-        System.out.println("19. Sign out");
+        System.out.println("19. Save schedules for every user");
+        System.out.println("20. Sign out");
     }
 
     /**
@@ -149,6 +150,33 @@ public class OrganizerPresenter extends UserPresenter {
         System.out.println("Please enter a number and try again.");
     }
 
+    /**
+     * Prompts the user to enter a directory to save the schedule of every user to.
+     */
+    public void promptOutputDirectory() {
+        System.out.println("Enter the directory you would like to save every user's schedule to (or enter \""+CancelThrowable.CANCEL_STRING+"\" to cancel):");
+    }
+
+    /**
+     * Informs the user the schedules are being generated
+     * @param count The number of schedules being generated
+     */
+    public void savingSchedules(int count) {
+        System.out.println("Generating and saving " + count + " schedules...");
+    }
+
+    /**
+     * Informs the user how many schedules were saved, and how quickly
+     * @param saved The number of schedules saved
+     * @param count The number of schedules which were to be saved
+     * @param outputPath The directory the schedules were saved to
+     * @param millis How long saving the schedules took, in milliseconds
+     */
+    public void successfullySavedSchedules(int saved, int count, String outputPath, long millis) {
+        System.out.println("Done. " + saved + " of " + count + " schedules saved to \"" + outputPath + "\" in " +
+                millis + " ms (" + String.format("%.1f", saved * 1000.0 / Math.max(millis, 1)) + " schedules per second).");
+    }
+
 }
 
 
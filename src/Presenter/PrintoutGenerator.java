@@ -4,7 +4,13 @@ import UseCase.EventGrouping;
 import UseCase.EventManager;
 import UseCase.UserManager;
 
-import java.text.SimpleDateFormat;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 public class PrintoutGenerator {
@@ -13,8 +19,10 @@ public class PrintoutGenerator {
         ALL, ATTENDEE, SPEAKER
     };
 
-    private final SimpleDateFormat fullDayFormat = new SimpleDateFormat("MMMM dd, yyyy");
-    private final SimpleDateFormat timeFormat = new SimpleDateFormat("hh:mm a");
+    private final DateTimeFormatter fullDayFormat = DateTimeFormatter.ofPattern("MMMM dd, yyyy")
+            .withZone(ZoneId.systemDefault());
+    private final DateTimeFormatter timeFormat = DateTimeFormatter.ofPattern("hh:mm a")
+            .withZone(ZoneId.systemDefault());
 
     private final String headString = "<!doctype html>\n" +
             "<html>\n" +
@@ -84,6 +92,13 @@ public class PrintoutGenerator {
             "  </head>\n" +
             "  <body>\n";
 
+    // The header and the "All Events" section are the same in every printout until an event changes, so the last
+    // ones written are kept along with the version of the EventManager they were written from. They are shared by
+    // every PrintoutGenerator, since a new one is made for each printout.
+    private static long cachedVersion;
+    private static String cachedHeaderCode;
+    private static String cachedFullScheduleCode;
+
     private final String tailString = "    </div>\n" +
             "  </body>\n" +
             "</html>";
@@ -96,11 +111,13 @@ public class PrintoutGenerator {
      * @return A string containing the generated html code
      */
     public String generateAttendeeSchedule(String username, EventManager eventManager, UserManager userManager) {
-        return headString
-                + generateHeaderCode(eventManager)
-                + generateAttendeeScheduleCode(username, eventManager, userManager)
-                + generateFullScheduleCode(eventManager)
-                + tailString;
+        StringWriter out = new StringWriter();
+        try {
+            writeAttendeeSchedule(username, eventManager, userManager, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
     }
 
     /**
@@ -111,11 +128,13 @@ public class PrintoutGenerator {
      * @return A string containing the generated html code
      */
     public String generateSpeakerSchedule(String speakerName, EventManager eventManager, UserManager userManager) {
-        return headString
-                + generateHeaderCode(eventManager)
-                + generateSpeakerScheduleCode(speakerName, eventManager, userManager)
-                + generateFullScheduleCode(eventManager)
-                + tailString;
+        StringWriter out = new StringWriter();
+        try {
+            writeSpeakerSchedule(speakerName, eventManager, userManager, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
     }
 
     /**
@@ -124,117 +143,181 @@ public class PrintoutGenerator {
      * @return A string containing the generated html code
      */
     public String generateFullSchedule(EventManager eventManager) {
-        return headString
-                + generateHeaderCode(eventManager)
-                + generateFullScheduleCode(eventManager)
-                + tailString;
+        StringWriter out = new StringWriter();
+        try {
+            writeFullSchedule(eventManager, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes the html code for the schedule of an attendee as it is generated. The header and the "All Events"
+     * section are only generated again if an event has changed since the last printout
+     * @param username The username of the attendee
+     * @param eventManager The EventManager associated with this session
+     * @param userManager The UserManager associated with this session
+     * @param out Where the html code is written
+     * @throws IOException if writing to out fails
+     */
+    public void writeAttendeeSchedule(String username, EventManager eventManager, UserManager userManager,
+                                      Writer out) throws IOException {
+        String[] common = getCommonCode(eventManager);
+        out.write(headString);
+        out.write(common[0]);
+        writeAttendeeScheduleCode(username, eventManager, userManager, out);
+        out.write(common[1]);
+        out.write(tailString);
+    }
+
+    /**
+     * Writes the html code for the schedule of a speaker as it is generated. The header and the "All Events"
+     * section are only generated again if an event has changed since the last printout
+     * @param speakerName The username of the speaker
+     * @param eventManager The EventManager associated with this session
+     * @param userManager The UserManager associated with this session
+     * @param out Where the html code is written
+     * @throws IOException if writing to out fails
+     */
+    public void writeSpeakerSchedule(String speakerName, EventManager eventManager, UserManager userManager,
+                                     Writer out) throws IOException {
+        String[] common = getCommonCode(eventManager);
+        out.write(headString);
+        out.write(common[0]);
+        writeSpeakerScheduleCode(speakerName, eventManager, userManager, out);
+        out.write(common[1]);
+        out.write(tailString);
     }
 
-    private String generateHeaderCode(EventManager eventManager) {
+    /**
+     * Writes the html code for the schedule of a conference as it is generated. The header and the "All Events"
+     * section are only generated again if an event has changed since the last printout
+     * @param eventManager The EventManager associated with this session
+     * @param out Where the html code is written
+     * @throws IOException if writing to out fails
+     */
+    public void writeFullSchedule(EventManager eventManager, Writer out) throws IOException {
+        String[] common = getCommonCode(eventManager);
+        out.write(headString);
+        out.write(common[0]);
+        out.write(common[1]);
+        out.write(tailString);
+    }
+
+    // The header and the "All Events" section for the events as they are now, written again only if an event has
+    // changed since they were last written
+    private String[] getCommonCode(EventManager eventManager) throws IOException {
+        synchronized (PrintoutGenerator.class) {
+            // read first, so that an event changing while the code is written makes it be written again next time
+            long version = eventManager.getVersion();
+            if (cachedVersion != version) {
+                StringWriter header = new StringWriter();
+                writeHeaderCode(eventManager, header);
+                StringWriter fullSchedule = new StringWriter();
+                writeFullScheduleCode(eventManager, fullSchedule);
+
+                cachedHeaderCode = header.toString();
+                cachedFullScheduleCode = fullSchedule.toString();
+                cachedVersion = version;
+            }
+            return new String[]{cachedHeaderCode, cachedFullScheduleCode};
+        }
+    }
+
+    private void writeHeaderCode(EventManager eventManager, Writer out) throws IOException {
         EventGrouping eventGrouping = new EventGrouping();
 
         List<String> events = eventGrouping.arrangeChronologically(eventManager.getEventNames(), eventManager);
-        String startDay = fullDayFormat.format(eventManager.getTimeOfEvent(events.get(0)));
-        String endDay = fullDayFormat.format(eventManager.getTimeOfEvent(events.get(events.size()-1)));
+        String startDay = fullDayFormat.format(Instant.ofEpochMilli(eventManager.getTimeOfEvent(events.get(0))));
+        String endDay = fullDayFormat.format(Instant.ofEpochMilli(
+                eventManager.getTimeOfEvent(events.get(events.size()-1))));
 
 
-        return String.format(
+        out.write(String.format(
                 "    <div class=\"header\">\n" +
                 "        <h3>CSC207 Tech Conference</h3>\n" +
                 "        <div class=\"headerTabs\">\n" +
                 "          <h3>%s - %s</h3>\n" +
                 "        </div>\n" +
                 "    </div>\n" +
-                "    <div class=\"body\">\n", startDay, endDay);
+                "    <div class=\"body\">\n", startDay, endDay));
     }
 
-    private String generateFullScheduleCode(EventManager eventManager) {
+    private void writeFullScheduleCode(EventManager eventManager, Writer out) throws IOException {
         EventGrouping eventGrouping = new EventGrouping();
 
         Collection<String> allEvents = eventManager.getEventNames();
         List<List<String>> groupedEvents = eventGrouping.groupByDay(allEvents, eventManager);
 
-        StringBuilder codeStr = new StringBuilder();
-
-        codeStr.append("      <h2>All Events:</h2>\n");
+        out.write("      <h2>All Events:</h2>\n");
 
         for (List<String> dayList : groupedEvents) {
-            codeStr.append(generateDateSectionCode(dayList, eventManager, Style.ALL));
+            writeDateSectionCode(dayList, eventManager, Style.ALL, out);
         }
-
-        return codeStr.toString();
     }
 
-    private String generateAttendeeScheduleCode(String username, EventManager eventManager, UserManager userManager) {
+    private void writeAttendeeScheduleCode(String username, EventManager eventManager, UserManager userManager,
+                                           Writer out) throws IOException {
         EventGrouping eventGrouping = new EventGrouping();
 
         Collection<String> myEvents = userManager.getEvents(username);
         List<List<String>> groupedEvents = eventGrouping.groupByDay(myEvents, eventManager);
 
-        StringBuilder codeStr = new StringBuilder();
-
-        codeStr.append("      <h2>My Events:</h2>\n");
+        out.write("      <h2>My Events:</h2>\n");
 
         for (List<String> dayList : groupedEvents) {
-            codeStr.append(generateDateSectionCode(dayList, eventManager, Style.ATTENDEE));
+            writeDateSectionCode(dayList, eventManager, Style.ATTENDEE, out);
         }
-
-        return codeStr.toString();
     }
 
-    private String generateSpeakerScheduleCode(String speakerName, EventManager eventManager, UserManager userManager) {
+    private void writeSpeakerScheduleCode(String speakerName, EventManager eventManager, UserManager userManager,
+                                          Writer out) throws IOException {
         EventGrouping eventGrouping = new EventGrouping();
 
         if (!userManager.hasSpeaker(speakerName)) {
-            return "";
+            return;
         }
 
         Collection<String> myEvents = userManager.getHostedEvents(speakerName);
         List<List<String>> groupedEvents = eventGrouping.groupByDay(myEvents, eventManager);
 
-        StringBuilder codeStr = new StringBuilder();
-
-        codeStr.append("      <h2>Speaking at:</h2>\n");
+        out.write("      <h2>Speaking at:</h2>\n");
 
         for (List<String> dayList : groupedEvents) {
-            codeStr.append(generateDateSectionCode(dayList, eventManager, Style.ATTENDEE));
+            writeDateSectionCode(dayList, eventManager, Style.ATTENDEE, out);
         }
-
-        return codeStr.toString();
     }
 
-    private String generateDateSectionCode(List<String> events, EventManager eventManager, Style style) {
-        StringBuilder codeStr = new StringBuilder();
-
-        String fullDayString = fullDayFormat.format(eventManager.getTimeOfEvent(events.get(0)));
+    private void writeDateSectionCode(List<String> events, EventManager eventManager, Style style, Writer out)
+            throws IOException {
+        String fullDayString = fullDayFormat.format(Instant.ofEpochMilli(eventManager.getTimeOfEvent(events.get(0))));
 
         switch (style) {
             case ALL:
-                codeStr.append("      <div class=\"allDateSection\">\n");
+                out.write("      <div class=\"allDateSection\">\n");
                 break;
             case ATTENDEE:
-                codeStr.append("      <div class=\"attendeeDateSection\">\n");
+                out.write("      <div class=\"attendeeDateSection\">\n");
                 break;
             case SPEAKER:
-                codeStr.append("      <div class=\"speakerDateSection\">\n");
+                out.write("      <div class=\"speakerDateSection\">\n");
                 break;
         }
-        codeStr.append(String.format("        <h3 class=\"dateSectionHeader\">%s</h3>\n", fullDayString));
+        out.write(String.format("        <h3 class=\"dateSectionHeader\">%s</h3>\n", fullDayString));
 
         for (String event : events) {
-            String timeString = timeFormat.format(eventManager.getTimeOfEvent(event));
+            String timeString = timeFormat.format(Instant.ofEpochMilli(eventManager.getTimeOfEvent(event)));
 
             Set<String> speakers = eventManager.getSpeakersAtEvent(event);
             String speakerString = getSpeakerString(speakers);
             String vipString = (eventManager.isVipOnly(event) ? "[VIP] " : "");
             String roomCode = eventManager.getRoomCodeOfEvent(event);
 
-            codeStr.append(String.format("        <li>%s (%s): %s<strong>%s</strong> %s</li>\n", timeString, roomCode, vipString, event, speakerString));
+            out.write(String.format("        <li>%s (%s): %s<strong>%s</strong> %s</li>\n", timeString, roomCode, vipString, event, speakerString));
         }
 
-        codeStr.append("      </div>\n");
-
-        return codeStr.toString();
+        out.write("      </div>\n");
     }
 
     private String getSpeakerString(Collection<String> speakers) {
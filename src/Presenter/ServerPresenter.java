@@ -0,0 +1,34 @@
+package Presenter;
+
+public class ServerPresenter {
+
+    /**
+     * Tells the person running the server that it is ready for connections.
+     * @param port The port the server is accepting connections on.
+     */
+    public void listening(int port) {
+        System.out.println("Accepting sessions on port " + port + ". Enter \"stop\" to stop the server.");
+    }
+
+    /**
+     * Tells the person running the server that what they entered does not stop it.
+     */
+    public void notStop() {
+        System.out.println("Enter \"stop\" to stop the server.");
+    }
+
+    /**
+     * Tells the person running the server that it is closing every session.
+     */
+    public void stopping() {
+        System.out.println("Stopping the server and closing every session...");
+    }
+
+    /**
+     * Tells the person running the server that the port could not be used.
+     * @param port The port the server tried to accept connections on.
+     */
+    public void cannotListen(int port) {
+        System.out.println("Cannot accept sessions on port " + port + ".");
+    }
+}
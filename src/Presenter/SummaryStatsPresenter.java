@@ -1,6 +1,7 @@
 package Presenter;
 
 import UseCase.StatisticsGenerator;
+import Util.RankingMetric;
 
 import java.text.NumberFormat;
 import java.util.ArrayList;
@@ -24,11 +25,13 @@ public class SummaryStatsPresenter {
     public void printStatsMenu(){
         System.out.println("\nWhat kind of statistics would you like to view?");
         System.out.println("1. Event Enrollment Statistics");
-        System.out.println("2. Top 3 Events");
-        System.out.println("3. Top 3 Rooms");
-        System.out.println("4. Average number of events per day");
-        System.out.println("5. Average number of attendees per day");
-        System.out.println("6. Cancel");
+        System.out.println("2. Top Events by attendance");
+        System.out.println("3. Top Events by fullness");
+        System.out.println("4. Top Rooms");
+        System.out.println("5. Top Speakers by audience");
+        System.out.println("6. Average number of events per day");
+        System.out.println("7. Average number of attendees per day");
+        System.out.println("8. Cancel");
     }
 
     /**
@@ -65,58 +68,50 @@ public class SummaryStatsPresenter {
             for (String stat: capacityStats){
                 System.out.println("- "+stat);
             }
+            NumberFormat percent = NumberFormat.getPercentInstance();
+            double overall = statisticsGenerator.generateOverallFullStatistic();
+            System.out.println("\nOverall, the events are " + percent.format(overall) + " full");
         }
     }
 
     /**
-     * Prints the top 3 most popular events based on number of attendees
+     * Asks how many places of a ranking to show
      */
-    public void printTopEvents(){
-        ArrayList<String> top1 = statisticsGenerator.generateTop1Events();
-        ArrayList<String> top2 = statisticsGenerator.generateTop2Events();
-        ArrayList<String> top3 = statisticsGenerator.generateTop3Events();
-        System.out.println("Here are the top events based on the highest attendance size");
-        if (top1.size() == 0){
-            System.out.println("The events currently have no one enrolled yet.");
-        } else {
-            for (String event: top1){
-                System.out.println("1. "+event);
-            }
-            if (top2.size() > 0){
-                for (String event: top2){
-                    System.out.println("2. "+event);
-                }
-            }
-            if (top3.size() > 0){
-                for (String event: top3){
-                    System.out.println("3. "+event);
-                }
-            }
-        }
+    public void promptNumberOfPlaces(){
+        System.out.println("\nHow many places would you like to see? (Leave blank for 3)");
     }
 
     /**
-     * Prints the top 3 most popular rooms based on number of events being held in the rooms
+     * Prints the top k events, rooms or speakers, with everything tied for a place printed under the same number
+     * @param k The number of places to print
+     * @param metric What is being ranked, and by which figure
      */
-    public void printTopRooms(){
-        ArrayList<String> top1 = statisticsGenerator.generateTop1Rooms();
-        ArrayList<String> top2 = statisticsGenerator.generateTop2Rooms();
-        ArrayList<String> top3 = statisticsGenerator.generateTop3Rooms();
-        System.out.println("Here are the top rooms based on the highest number of events being held in each room");
-        if (top1.size() == 0){
-            System.out.println("The rooms currently have no events being scheduled in them.");
-        } else {
-            for (String room: top1){
-                System.out.println("1. "+room);
-            }
-            if (top2.size() > 0){
-                for (String room: top2){
-                    System.out.println("2. "+room);
-                }
+    public void printTopK(int k, RankingMetric metric){
+        ArrayList<ArrayList<String>> places = statisticsGenerator.generateTopK(k, metric);
+        switch (metric){
+            case EVENT_ATTENDANCE:
+                System.out.println("Here are the top events based on the highest attendance size");
+                break;
+            case EVENT_FULLNESS:
+                System.out.println("Here are the top events based on how full they are");
+                break;
+            case ROOM_EVENTS:
+                System.out.println("Here are the top rooms based on the highest number of events being held in each room");
+                break;
+            case SPEAKER_AUDIENCE:
+                System.out.println("Here are the top speakers based on the number of attendees of their events");
+                break;
+        }
+        if (places.size() == 0){
+            if (metric == RankingMetric.ROOM_EVENTS){
+                System.out.println("The rooms currently have no events being scheduled in them.");
+            } else {
+                System.out.println("The events currently have no one enrolled yet.");
             }
-            if (top3.size() > 0){
-                for (String room: top3){
-                    System.out.println("3. "+room);
+        } else {
+            for (int place = 0; place < places.size(); place++){
+                for (String name: places.get(place)){
+                    System.out.println((place + 1) + ". " + name);
                 }
             }
         }
@@ -158,6 +153,6 @@ public class SummaryStatsPresenter {
      * Tells the user that the number they have entered in not in the range
      */
     public void numNotInRange(){
-        System.out.println("\nThe number you entered is not in the range of 1-6. Please try again");
+        System.out.println("\nThe number you entered is not in the range of 1-8. Please try again");
     }
 }
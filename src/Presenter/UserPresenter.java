@@ -6,7 +6,9 @@ import UseCase.MessageManager;
 import UseCase.UserManager;
 import Util.CancelThrowable;
 
-import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -53,9 +55,10 @@ public abstract class UserPresenter {
 
         for (String event: listedEvents){
             boolean isVip = eventManager.isVipOnly(event);
-            SimpleDateFormat timeFormatter = new SimpleDateFormat("dd-MMM-yyyy hh:mm a");
+            DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("dd-MMM-yyyy hh:mm a")
+                    .withZone(ZoneId.systemDefault());
 
-            String timeString = timeFormatter.format(eventManager.getTimeOfEvent(event));
+            String timeString = timeFormatter.format(Instant.ofEpochMilli(eventManager.getTimeOfEvent(event)));
             String vipStatusString = (eventManager.isVipOnly(event) ? "[VIP] " : "");
             String speakerString = getSpeakerString(eventManager.getSpeakersAtEvent(event));
 
@@ -109,7 +112,10 @@ public abstract class UserPresenter {
                 readString = "(READ)";
             }
 
-            System.out.printf("%d) %s:\n", existingThreads.size() - i, otherUser);
+            int unreadCount = messageManager.getUnreadCount(mainUserName, otherUser);
+            String unreadString = unreadCount > 0 ? " (" + unreadCount + " unread)" : "";
+
+            System.out.printf("%d) %s%s:\n", existingThreads.size() - i, otherUser, unreadString);
             System.out.printf("\t%s sent %s: %s\n", (you ? mainUserName + " (you)" : otherUser), readString, lastMessage[2]);
         }
 
@@ -222,7 +228,8 @@ public abstract class UserPresenter {
      * Prompts the user to enter a file location to save a schedule file.
      */
     public void promptOutputPath() {
-        System.out.println("Enter the file location you would like to save the schedule to (or enter \""+CancelThrowable.CANCEL_STRING+"\" to cancel):");
+        System.out.println("Enter the file location you would like to save the schedule to (or enter \""+CancelThrowable.CANCEL_STRING+"\" to cancel).");
+        System.out.println("End it with \".ics\" to save a calendar which can be imported into calendar programs:");
     }
 
     /**
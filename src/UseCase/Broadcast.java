@@ -0,0 +1,183 @@
+package UseCase;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+// One message sent by a UseCase.MessageManager to many users at once. The content is stored once for every
+// recipient, and each recipient's copy is only a bit in each of the read, archived and deleted sets.
+// The copy sent to the i-th recipient has the id firstId + i, so a broadcast takes up a block of consecutive ids.
+public class Broadcast implements Serializable {
+
+    // Declared as the value Java computed for this class, so that broadcasts already saved can still be read
+    private static final long serialVersionUID = 7694935510172880643L;
+
+    // The id of the copy sent to the first recipient
+    private final int firstId;
+
+    // The username of the sender of the broadcast
+    private final String sender;
+
+    // The usernames of the recipients, in the order of the ids of their copies
+    private final List<String> receivers;
+
+    // Where the content of the broadcast is in the UseCase.MessageStore
+    private final long contentLocation;
+
+    // The recipients (by position in receivers) whose copy is read, archived or deleted
+    private final BitSet read;
+    private final BitSet archived;
+    private final BitSet deleted;
+
+    /**
+     * Constructs a new UseCase.Broadcast.
+     * @param firstId - the id of the copy sent to the first recipient
+     * @param sender - the username of the sender
+     * @param receivers - the usernames of the recipients
+     * @param contentLocation - where the content of the broadcast is in the UseCase.MessageStore
+     * @param read - the positions of the recipients who have read their copy
+     * @param archived - the positions of the recipients who have archived their copy
+     * @param deleted - the positions of the recipients who have deleted their copy
+     */
+    public Broadcast(int firstId, String sender, List<String> receivers, long contentLocation, BitSet read,
+                     BitSet archived, BitSet deleted) {
+        this.firstId = firstId;
+        this.sender = sender;
+        this.receivers = new ArrayList<>(receivers);
+        this.contentLocation = contentLocation;
+        this.read = (BitSet) read.clone();
+        this.archived = (BitSet) archived.clone();
+        this.deleted = (BitSet) deleted.clone();
+    }
+
+    /**
+     * Fetches the id of the first copy of this broadcast; the other copies have the ids after it.
+     * @return the id of the first copy of this broadcast
+     */
+    public int getFirstId() {
+        return firstId;
+    }
+
+    /**
+     * Fetches the sender of this broadcast.
+     * @return the username of the sender of this broadcast
+     */
+    public String getSender() {
+        return sender;
+    }
+
+    /**
+     * Fetches the recipients of this broadcast, in the order of the ids of their copies.
+     * @return the usernames of the recipients of this broadcast
+     */
+    public List<String> getReceivers() {
+        return new ArrayList<>(receivers);
+    }
+
+    /**
+     * Fetches where the content of this broadcast is kept.
+     * @return the location of the content of this broadcast in the UseCase.MessageStore
+     */
+    public long getContentLocation() {
+        return contentLocation;
+    }
+
+    /**
+     * Fetches which copies of this broadcast are read.
+     * @return the positions among the recipients of the copies which are read
+     */
+    public BitSet getReadStatuses() {
+        return (BitSet) read.clone();
+    }
+
+    /**
+     * Fetches which copies of this broadcast are archived.
+     * @return the positions among the recipients of the copies which are archived
+     */
+    public BitSet getArchivedStatuses() {
+        return (BitSet) archived.clone();
+    }
+
+    /**
+     * Fetches which copies of this broadcast are deleted.
+     * @return the positions among the recipients of the copies which are deleted
+     */
+    public BitSet getDeletedStatuses() {
+        return (BitSet) deleted.clone();
+    }
+
+    /**
+     * Checks whether a message id belongs to one of the copies of this broadcast.
+     * @param id - the id being checked
+     * @return True if and only if the id is in the block of ids taken up by this broadcast
+     */
+    boolean contains(int id) {
+        return id >= firstId && id - firstId < receivers.size();
+    }
+
+    /**
+     * Checks whether every recipient has deleted their copy, in which case the broadcast can be forgotten.
+     * @return True if and only if every copy is deleted
+     */
+    boolean isDeleted() {
+        return deleted.cardinality() == receivers.size();
+    }
+
+    /**
+     * Fetches the copy of this broadcast with the given id. The copy keeps no state of its own, so any number of
+     * them can be fetched for the same recipient.
+     * @param id - the id of the copy, which this broadcast contains
+     * @return the copy, or null if it is deleted
+     */
+    MessageRecord getMessage(int id) {
+        int position = id - firstId;
+        return deleted.get(position) ? null : new Copy(id, position);
+    }
+
+    // A recipient's copy of the broadcast, which reads and writes its status in the bits of the broadcast
+    private class Copy extends MessageRecord {
+
+        // A copy is made whenever it is asked for and is not saved itself, but it is serializable as a
+        // UseCase.MessageRecord; this is the value Java computed for it
+        private static final long serialVersionUID = -1766456929530965076L;
+
+        // The position of the recipient in receivers
+        private final int position;
+
+        Copy(int id, int position) {
+            super(id, sender, receivers.get(position), contentLocation, false, false);
+            this.position = position;
+        }
+
+        @Override
+        public boolean getReadStatus() {
+            return read.get(position);
+        }
+
+        @Override
+        public boolean getArchivedStatus() {
+            return archived.get(position);
+        }
+
+        @Override
+        void setRead(boolean read) {
+            Broadcast.this.read.set(position, read);
+        }
+
+        @Override
+        void setArchived(boolean archived) {
+            Broadcast.this.archived.set(position, archived);
+        }
+
+        @Override
+        boolean isDeleted() {
+            return deleted.get(position);
+        }
+
+        @Override
+        void setDeleted() {
+            deleted.set(position);
+        }
+    }
+}
@@ -31,13 +31,21 @@ public class DiscussionBuilder extends EventBuilder {
         this.speakers.addAll(speakers);
     }
 
+    /**
+     * Fetches the speakers of the builder
+     * @return The names of the speakers at the discussion
+     */
+    public Set<String> getSpeakers() {
+        return speakers;
+    }
+
     /**
      * Builds a new Discussion object with the built parameters
      * @return The built discussion
      */
     @Override
     public Discussion getInstance() {
-        Discussion discussion = new Discussion(name, dateAndTime, roomCode, speakers, capacity);
+        Discussion discussion = new Discussion(name, startTime, roomCode, speakers, capacity);
         discussion.setVipEvent(isVip);
 
         return discussion;
@@ -3,12 +3,15 @@ package UseCase;
 import Entity.Discussion;
 
 import java.io.Serializable;
-import java.util.Calendar;
-import java.util.Date;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
 public class DiscussionManager implements Serializable {
+
+    // Pinned, so that files saved by earlier versions can still be read
+    private static final long serialVersionUID = -2271160268092104565L;
+
     // list of discussions
     private Set<Discussion> discussions;
 
@@ -19,6 +22,14 @@ public class DiscussionManager implements Serializable {
         discussions = new HashSet<>();
     }
 
+    /**
+     * Recreates a UseCase.DiscussionManager holding the given discussions
+     * @param discussions The discussions to be managed
+     */
+    public DiscussionManager(Collection<Discussion> discussions) {
+        this.discussions = new HashSet<>(discussions);
+    }
+
     /**
      * Fetches all of the discussions of this UseCase.DiscussionManager
      * @return The list of discussions
@@ -80,9 +91,13 @@ public class DiscussionManager implements Serializable {
     /**
      * Creates a Entity.Discussion from the given UseCase.DiscussionBuilder
      * @param discussionBuilder The UseCase.DiscussionBuilder to be used
+     * @return The new discussion
      */
-    public void createDiscussion(DiscussionBuilder discussionBuilder) {
-        discussions.add(discussionBuilder.getInstance());
+    public Discussion createDiscussion(DiscussionBuilder discussionBuilder) {
+        Discussion discussion = discussionBuilder.getInstance();
+        discussions.add(discussion);
+
+        return discussion;
     }
 
     /**
@@ -109,15 +124,13 @@ public class DiscussionManager implements Serializable {
     public boolean addSpeaker(String discussionName, String speakerName, UserManager userManager) {
         if(userManager.hasSpeaker(speakerName)) {
             Discussion discussion = getDiscussionWithName(discussionName);
-            Date[] time = new Date[2];
-            time[0] = discussion.getDateAndTime();
-            time[1] = getOneHourLater(time[0]);
+            long[] time = {discussion.getStartTime(), discussion.getEndTime()};
 
             EventValidator ev = new EventValidator();
 
             if(ev.isSpeakerAvailable(speakerName, time, userManager)) {
                 discussion.addSpeaker(speakerName);
-                userManager.getSpeaker(speakerName).assignEvent(discussionName, time);
+                userManager.assignEventToSpeaker(speakerName, discussionName, time);
 
                 return true;
             }
@@ -137,21 +150,8 @@ public class DiscussionManager implements Serializable {
 
             if(discussion.getSpeakerUsernames().contains(speakerName)) {
                 discussion.removeSpeaker(speakerName);
-                userManager.getSpeaker(speakerName).unassignEvent(discussionName);
+                userManager.unassignEventFromSpeaker(speakerName, discussionName);
             }
         }
     }
-
-    /**
-     * Helper method which creates a Date object with a time one hour later than startTime
-     * @param startTime - the returned Date object will be one hour after this time
-     * @return - a Date object one hour after starTime
-     */
-    private Date getOneHourLater(Date startTime) {
-        Calendar c = Calendar.getInstance();         // need Calendar to add time, not supported in Date class
-        c.setTime(startTime);                       // convert Date to Calendar
-        c.add(Calendar.HOUR, 1);
-
-        return c.getTime();                         //return new Date object set to 1 hour later
-    }
 }
@@ -2,14 +2,12 @@ package UseCase;
 
 import Entity.Event;
 
-import java.util.Date;
-
 abstract class EventBuilder {
 
     // the name of the event
     protected String name;
-    // the time of the event
-    protected Date dateAndTime;
+    // the start time of the event, in milliseconds since the epoch
+    protected long startTime;
     // The roomCode of the room where this event is being held
     protected String roomCode;
     // The maximum number of people that can attend the event
@@ -22,14 +20,14 @@ abstract class EventBuilder {
      *
      * Defaults:
      * - name: ""
-     * - dateAndTime: now
+     * - startTime: now
      * - roomCode: ""
      * - capacity: 2
      * - isVip: false
      */
     public EventBuilder() {
         name = "";
-        dateAndTime = new Date();
+        startTime = System.currentTimeMillis();
         roomCode = "";
         capacity = 2;
         isVip = false;
@@ -44,11 +42,11 @@ abstract class EventBuilder {
     }
 
     /**
-     * Sets the date and time of the builder to the given date and time
-     * @param dateAndTime The start time of the event
+     * Sets the start time of the builder to the given time
+     * @param startTime The start time of the event, in milliseconds since the epoch
      */
-    public void buildDateAndTime(Date dateAndTime) {
-        this.dateAndTime = dateAndTime;
+    public void buildStartTime(long startTime) {
+        this.startTime = startTime;
     }
 
     /**
@@ -1,11 +1,25 @@
 package UseCase;
 
 import Entity.*;
+import Util.EventType;
+import Util.MutationType;
 
-import java.io.Serializable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
 
-public class EventManager implements Serializable {
+// Any number of threads can use a UseCase.EventManager at once. Events are created, removed and resized while nothing
+// else uses the manager. Users sign up for events at the same time as each other: a seat is reserved atomically, without
+// locking the event, and then the user's place is filled in under the lock of that user.
+public class EventManager extends JournaledManager {
+
+    // The same as before the managers were journaled, so that files saved by those versions can still be read
+    private static final long serialVersionUID = 914806175346706463L;
 
     // Manages the parties
     private PartyManager partyManager;
@@ -16,6 +30,45 @@ public class EventManager implements Serializable {
     // Manages the discussions
     private DiscussionManager discussionManager;
 
+    // Every event, by name; built from the three managers above when this manager is created or deserialized, so that
+    // threads sharing the manager never race to build it
+    private transient Map<String, Event> eventIndex;
+
+    // The times of the events in each room, by room code, and the times of every event; built along with eventIndex
+    private transient Map<String, IntervalIndex<String>> roomSchedules;
+    private transient IntervalIndex<String> schedule;
+
+    // Every event in chronological order, grouped by the day it is on, then by its start time (events starting at the
+    // same time are in order of name); built along with eventIndex
+    private transient TreeMap<Long, TreeMap<Long, TreeSet<String>>> timeline;
+
+    // How many events there are of each type, and the total attendees and capacity of every event; kept up to date on
+    // every change so that the statistics of the conference never need to look at each event. Built along with
+    // eventIndex. The attendees change as users sign up for different events at the same time, so they are counted
+    // atomically
+    private transient Map<EventType, Integer> typeCounts;
+    private transient AtomicInteger attendeeCount;
+    private transient int totalCapacity;
+
+    // The number of seats taken in each event, by name: the attendees, along with any users in the middle of signing up.
+    // Never more than the capacity of the event, except where the capacity has been lowered below the number of
+    // attendees. Built along with eventIndex
+    private transient Map<String, AtomicInteger> seatsTaken;
+
+    // Hands out the version stamps of every UseCase.EventManager, so that no two versions of any of them share one
+    private static final AtomicLong versions = new AtomicLong();
+
+    // The version stamp of the events as they are now; 0 after any change, until a new stamp is asked for
+    private transient volatile long version;
+
+    /**
+     * How long every event lasts, in milliseconds
+     */
+    public static final long EVENT_LENGTH = Event.LENGTH;
+
+    // The length of a day, in milliseconds
+    private static final long DAY_LENGTH = 24 * 60 * 60 * 1000;
+
 
     /**
      * Create a new UseCase.EventManager with no events
@@ -24,6 +77,269 @@ public class EventManager implements Serializable {
         partyManager = new PartyManager();
         talkManager = new TalkManager();
         discussionManager = new DiscussionManager();
+        getEventIndex();
+    }
+
+    /**
+     * Recreates a UseCase.EventManager holding the given events, such as ones loaded from a snapshot
+     * @param parties The parties to be managed
+     * @param talks The talks to be managed
+     * @param discussions The discussions to be managed
+     */
+    public EventManager(Collection<Party> parties, Collection<Talk> talks, Collection<Discussion> discussions) {
+        partyManager = new PartyManager(parties);
+        talkManager = new TalkManager(talks);
+        discussionManager = new DiscussionManager(discussions);
+        getEventIndex();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        getEventIndex();
+    }
+
+    // Fetches the index of events by name, building it and the schedules if this is the first time it is needed
+    private Map<String, Event> getEventIndex() {
+        if (eventIndex == null) {
+            eventIndex = new HashMap<>();
+            roomSchedules = new HashMap<>();
+            schedule = new IntervalIndex<>();
+            timeline = new TreeMap<>();
+            typeCounts = new EnumMap<>(EventType.class);
+            attendeeCount = new AtomicInteger();
+            totalCapacity = 0;
+            seatsTaken = new HashMap<>();
+            for (Event event : partyManager.getParties()) {
+                index(event);
+            }
+            for (Event event : talkManager.getTalks()) {
+                index(event);
+            }
+            for (Event event : discussionManager.getDiscussions()) {
+                index(event);
+            }
+        }
+
+        return eventIndex;
+    }
+
+    // Adds an event to the index by name and to the schedules
+    private void index(Event event) {
+        long start = event.getStartTime();
+
+        eventIndex.put(event.getName(), event);
+        roomSchedules.computeIfAbsent(event.getRoomCode(), roomCode -> new IntervalIndex<>())
+                .add(event.getName(), start, event.getEndTime());
+        schedule.add(event.getName(), start, event.getEndTime());
+        timeline.computeIfAbsent(getDay(start), day -> new TreeMap<>())
+                .computeIfAbsent(start, time -> new TreeSet<>()).add(event.getName());
+
+        typeCounts.merge(getType(event), 1, Integer::sum);
+        attendeeCount.addAndGet(event.getAttendees().size());
+        totalCapacity += event.getCapacity();
+        seatsTaken.put(event.getName(), new AtomicInteger(event.getAttendees().size()));
+    }
+
+    // Removes an event from the schedules and the statistics, but not from the index by name
+    private void unschedule(Event event) {
+        long start = event.getStartTime();
+        long day = getDay(start);
+
+        roomSchedules.get(event.getRoomCode()).remove(event.getName());
+        schedule.remove(event.getName());
+
+        TreeMap<Long, TreeSet<String>> dayEvents = timeline.get(day);
+        TreeSet<String> startingEvents = dayEvents.get(start);
+        startingEvents.remove(event.getName());
+        if (startingEvents.isEmpty()) {
+            dayEvents.remove(start);
+            if (dayEvents.isEmpty()) {
+                timeline.remove(day);
+            }
+        }
+
+        typeCounts.merge(getType(event), -1, Integer::sum);
+        attendeeCount.addAndGet(-event.getAttendees().size());
+        totalCapacity -= event.getCapacity();
+        seatsTaken.remove(event.getName());
+    }
+
+    // What kind of event an event is
+    private static EventType getType(Event event) {
+        if (event instanceof Talk) {
+            return EventType.TALK;
+        }
+        else if (event instanceof Discussion) {
+            return EventType.DISCUSSION;
+        }
+        else if (event instanceof Party) {
+            return EventType.PARTY;
+        }
+        return null;
+    }
+
+    // The day (counted from the epoch, in the default time zone) that the given time is on
+    private static long getDay(long time) {
+        int offset = ZoneId.systemDefault().getRules().getOffset(Instant.ofEpochMilli(time)).getTotalSeconds();
+        return Math.floorDiv(time + offset * 1000L, DAY_LENGTH);
+    }
+
+    /**
+     * Fetches a stamp of the current version of the events. It changes whenever any event changes, and is never the
+     * same as the stamp of any other version of any UseCase.EventManager, so anything worked out from the events can
+     * be kept until the stamp changes.
+     * @return the version stamp
+     */
+    public synchronized long getVersion() {
+        if (version == 0) {
+            version = versions.incrementAndGet();
+        }
+        return version;
+    }
+
+    // Every change to the events is recorded, so this is where the version changes. Synchronized along with getVersion,
+    // so a stamp handed out for the events before a change is never kept after it
+    @Override
+    protected synchronized void record(MutationType type, String... args) {
+        version = 0;
+        super.record(type, args);
+    }
+
+    /**
+     * Counts the days which have at least one event on them
+     * @return the number of days with events
+     */
+    public int getNumberOfDays() {
+        return readLocked(() -> timeline.size());
+    }
+
+    /**
+     * Counts the events
+     * @return the number of events managed by this UseCase.EventManager
+     */
+    public int getNumberOfEvents() {
+        return readLocked(() -> getEventIndex().size());
+    }
+
+    /**
+     * Counts the events of one type
+     * @param type The type of event
+     * @return the number of events of that type
+     */
+    public int getNumberOfEvents(EventType type) {
+        return readLocked(() -> typeCounts.getOrDefault(type, 0));
+    }
+
+    /**
+     * Counts the attendees of every event, with a user attending several events counted once for each
+     * @return the total number of attendees
+     */
+    public int getNumberOfAttendees() {
+        return attendeeCount.get();
+    }
+
+    /**
+     * Adds up the capacities of every event
+     * @return the total capacity
+     */
+    public int getTotalCapacity() {
+        return readLocked(() -> totalCapacity);
+    }
+
+    /**
+     * Arranges the given events into chronological order (based on start time); events starting at the same time are
+     * in order of name
+     * @param eventNames The names of the events
+     * @return The events arranged in chronological order
+     */
+    public List<String> arrangeChronologically(Collection<String> eventNames) {
+        List<String> arranged = new ArrayList<>();
+        for (List<String> day : groupByDay(eventNames)) {
+            arranged.addAll(day);
+        }
+        return arranged;
+    }
+
+    /**
+     * Arranges the given events into a list for each day (in chronological order) which has any of the events on it,
+     * each containing the events on that day in chronological order
+     * @param eventNames The names of the events
+     * @return The given events grouped by day
+     */
+    public List<List<String>> groupByDay(Collection<String> eventNames) {
+        return readLocked(() -> groupEventsByDay(eventNames));
+    }
+
+    // Groups the given events by day, while the events cannot be created or removed
+    private List<List<String>> groupEventsByDay(Collection<String> eventNames) {
+        Map<String, Event> index = getEventIndex();
+        List<List<String>> days = new ArrayList<>();
+
+        // a few events are quicker to sort on their own than to pick out of the whole timeline
+        if (eventNames.size() * 16 < index.size()) {
+            List<String> arranged = new ArrayList<>(new HashSet<>(eventNames));
+            arranged.sort(Comparator.comparingLong((String eventName) -> index.get(eventName).getStartTime())
+                    .thenComparing(Comparator.naturalOrder()));
+
+            long lastDay = 0;
+            for (String eventName : arranged) {
+                long day = getDay(index.get(eventName).getStartTime());
+                if (days.isEmpty() || day != lastDay) {
+                    days.add(new ArrayList<>());
+                    lastDay = day;
+                }
+                days.get(days.size() - 1).add(eventName);
+            }
+            return days;
+        }
+
+        Set<String> wanted = eventNames instanceof Set ? (Set<String>) eventNames : new HashSet<>(eventNames);
+        for (TreeMap<Long, TreeSet<String>> dayEvents : timeline.values()) {
+            List<String> day = new ArrayList<>();
+            for (TreeSet<String> startingEvents : dayEvents.values()) {
+                for (String eventName : startingEvents) {
+                    if (wanted.contains(eventName)) {
+                        day.add(eventName);
+                    }
+                }
+            }
+            if (!day.isEmpty()) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Checks whether no event is held in the given room at any point in the given time interval
+     * @param roomCode - the room code of the room
+     * @param time - an array where the first element is the beginning of the time interval and the second element is
+     *             the end of the time interval, in milliseconds since the epoch
+     * @return true if and only if no event in the room begins before time[1] and ends after time[0]
+     */
+    public boolean isRoomFree(String roomCode, long[] time) {
+        return readLocked(() -> {
+            IntervalIndex<String> roomSchedule = roomSchedules.get(roomCode);
+            return roomSchedule == null || !roomSchedule.overlaps(time[0], time[1]);
+        });
+    }
+
+    /**
+     * Fetches the room codes of the rooms in which an event is held at some point in the given time interval
+     * @param time - an array where the first element is the beginning of the time interval and the second element is
+     *             the end of the time interval, in milliseconds since the epoch
+     * @return the room code of every event which begins before time[1] and ends after time[0]
+     */
+    public Set<String> getRoomsInUse(long[] time) {
+        return readLocked(() -> {
+            Map<String, Event> index = getEventIndex();
+            Set<String> roomCodes = new HashSet<>();
+
+            for (String eventName : schedule.getOverlapping(time[0], time[1])) {
+                roomCodes.add(index.get(eventName).getRoomCode());
+            }
+            return roomCodes;
+        });
     }
 
     /**
@@ -31,12 +347,7 @@ public class EventManager implements Serializable {
      * @return the list of ALL events managed by this UseCase.EventManager
      */
     public Set<Event> getEvents() {
-        Set<Event> allEvents = new HashSet<>();
-        allEvents.addAll(partyManager.getParties());
-        allEvents.addAll(talkManager.getTalks());
-        allEvents.addAll(discussionManager.getDiscussions());
-
-        return allEvents;
+        return readLocked(() -> new HashSet<>(getEventIndex().values()));
     }
 
     /**
@@ -44,7 +355,7 @@ public class EventManager implements Serializable {
      * @return the list of all speakerless events managed by this UseCase.EventManager
      */
     public Set<String> getParties(){
-        return partyManager.getPartyNames();
+        return readLocked(() -> partyManager.getPartyNames());
     }
 
     /**
@@ -52,7 +363,7 @@ public class EventManager implements Serializable {
      * @return the list of all talks managed by this UseCase.EventManager
      */
     public Set<String> getTalks(){
-        return talkManager.getTalkNames();
+        return readLocked(() -> talkManager.getTalkNames());
     }
 
     /**
@@ -60,7 +371,7 @@ public class EventManager implements Serializable {
      * @return the list of all discussions managed by this UseCase.EventManager
      */
     public Set<String> getDiscussions(){
-        return discussionManager.getDiscussionNames();
+        return readLocked(() -> discussionManager.getDiscussionNames());
     }
 
 
@@ -69,12 +380,7 @@ public class EventManager implements Serializable {
      * @return a list of ALL the names of events managed by this UseCase.EventManager
      */
     public Set<String> getEventNames() {
-        Set<String> eventNames = new HashSet<>();
-        eventNames.addAll(partyManager.getPartyNames());
-        eventNames.addAll(talkManager.getTalkNames());
-        eventNames.addAll(discussionManager.getDiscussionNames());
-
-        return eventNames;
+        return readLocked(() -> new HashSet<>(getEventIndex().keySet()));
     }
 
     /**
@@ -83,12 +389,17 @@ public class EventManager implements Serializable {
      * @return the Entity.Event object
      */
     public Event getEventWithName(String eventName) {
-        for(Event event: getEvents()) {
-            if (event.getName().equals(eventName)) {
-                return event;
-            }
-        }
-        return null;
+        return readLocked(() -> getEventIndex().get(eventName));
+    }
+
+    /**
+     * Fetches what kind of event the event with the given name is
+     * @param eventName - name of event
+     * @return the type of the event, or null if there is no event with that name
+     */
+    public EventType getEventType(String eventName) {
+        Event event = getEventWithName(eventName);
+        return event == null ? null : getType(event);
     }
 
     /**
@@ -97,7 +408,8 @@ public class EventManager implements Serializable {
      * @return the Entity.Talk object
      */
     public Talk getTalkWithName(String talkName) {
-        return talkManager.getTalkWithName(talkName);
+        Event event = getEventWithName(talkName);
+        return event instanceof Talk ? (Talk) event : null;
     }
 
     /**
@@ -106,7 +418,8 @@ public class EventManager implements Serializable {
      * @return the Entity.Discussion object
      */
     public Discussion getDiscussionWithName(String discussionName) {
-        return discussionManager.getDiscussionWithName(discussionName);
+        Event event = getEventWithName(discussionName);
+        return event instanceof Discussion ? (Discussion) event : null;
     }
 
     /**
@@ -115,32 +428,35 @@ public class EventManager implements Serializable {
      * @return The set of speakers
      */
     public Set<String> getSpeakersAtEvent(String eventName) {
-        Set<String> speakers = new HashSet<>();
-
-        if (talkManager.hasTalk(eventName)) {
-            String speaker = talkManager.getSpeaker(eventName);
-            if (speaker != null) {
-                speakers.add(speaker);
+        return readLocked(() -> {
+            Set<String> speakers = new HashSet<>();
+            Event event = getEventIndex().get(eventName);
+
+            if (event instanceof Talk) {
+                String speaker = ((Talk) event).getSpeakerUsername();
+                if (speaker != null) {
+                    speakers.add(speaker);
+                }
+            }
+            else if(event instanceof Discussion) {
+                speakers.addAll(((Discussion) event).getSpeakerUsernames());
             }
-        }
-        else if(discussionManager.hasDiscussion(eventName)) {
-            speakers.addAll(discussionManager.getSpeakers(eventName));
-        }
 
-        return speakers;
+            return speakers;
+        });
     }
 
     /**
-     * Retrieves the date and time of an event given the event's name
+     * Retrieves the start time of an event given the event's name
      * @param eventName - the name of the event
-     * @return the date and time of the event
+     * @return the start time of the event, in milliseconds since the epoch
      *
      *                  **Precondition**
      *  An event with eventName exists
      */
-    public Date getTimeOfEvent(String eventName) {
+    public long getTimeOfEvent(String eventName) {
         Event event = getEventWithName(eventName);
-        return event.getDateAndTime();
+        return event.getStartTime();
     }
 
     /**
@@ -175,7 +491,7 @@ public class EventManager implements Serializable {
      * @return true if and only if an event with that name exists
      */
     public boolean hasEvent(String eventName) {
-        return partyManager.hasParty(eventName) || talkManager.hasTalk(eventName) || discussionManager.hasDiscussion(eventName);
+        return readLocked(() -> getEventIndex().containsKey(eventName));
     }
 
     /**
@@ -183,16 +499,25 @@ public class EventManager implements Serializable {
      * @param eventName - name of the event to be removed
      */
     public void removeEvent(String eventName) {
-        if(partyManager.hasParty(eventName)) {
-            partyManager.removeParty(eventName);
-        }
-        else if(talkManager.hasTalk(eventName)) {
-            talkManager.removeTalk(eventName);
-        }
-        else if(discussionManager.hasDiscussion(eventName)) {
-            discussionManager.removeDiscussion(eventName);
-        }
+        writeLocked(() -> {
+            Event event = getEventIndex().remove(eventName);
 
+            if (event != null) {
+                unschedule(event);
+            }
+
+            if(event instanceof Party) {
+                partyManager.removeParty(eventName);
+            }
+            else if(event instanceof Talk) {
+                talkManager.removeTalk(eventName);
+            }
+            else if(event instanceof Discussion) {
+                discussionManager.removeDiscussion(eventName);
+            }
+
+            record(MutationType.REMOVE_EVENT, eventName);
+        });
     }
 
     /**
@@ -200,7 +525,12 @@ public class EventManager implements Serializable {
      * @param partyBuilder The UseCase.PartyBuilder of the party being created
      */
     public void createParty(PartyBuilder partyBuilder) {
-        partyManager.createParty(partyBuilder);
+        writeLocked(() -> {
+            Party party = partyManager.createParty(partyBuilder);
+            index(party);
+            record(MutationType.CREATE_PARTY, partyBuilder.name, String.valueOf(partyBuilder.startTime),
+                    partyBuilder.roomCode, String.valueOf(partyBuilder.capacity), String.valueOf(partyBuilder.isVip));
+        });
     }
 
     /**
@@ -208,7 +538,13 @@ public class EventManager implements Serializable {
      * @param talkBuilder The TalkBuilders of the talk being created
      */
     public void createTalk(TalkBuilder talkBuilder) {
-        talkManager.createTalk(talkBuilder);
+        writeLocked(() -> {
+            Talk talk = talkManager.createTalk(talkBuilder);
+            index(talk);
+            record(MutationType.CREATE_TALK, talkBuilder.name, String.valueOf(talkBuilder.startTime),
+                    talkBuilder.roomCode, String.valueOf(talkBuilder.capacity), String.valueOf(talkBuilder.isVip),
+                    talkBuilder.getSpeaker());
+        });
     }
 
     /**
@@ -216,7 +552,16 @@ public class EventManager implements Serializable {
      * @param discussionBuilder The UseCase.DiscussionBuilder of the discussion being created
      */
     public void createDiscussion(DiscussionBuilder discussionBuilder) {
-        discussionManager.createDiscussion(discussionBuilder);
+        writeLocked(() -> {
+            Discussion discussion = discussionManager.createDiscussion(discussionBuilder);
+            index(discussion);
+
+            List<String> args = new ArrayList<>(Arrays.asList(discussionBuilder.name,
+                    String.valueOf(discussionBuilder.startTime), discussionBuilder.roomCode,
+                    String.valueOf(discussionBuilder.capacity), String.valueOf(discussionBuilder.isVip)));
+            args.addAll(discussionBuilder.getSpeakers());
+            record(MutationType.CREATE_DISCUSSION, args.toArray(new String[0]));
+        });
     }
 
     /**
@@ -225,30 +570,80 @@ public class EventManager implements Serializable {
      * @return true if and only if the event has reached its capacity for attendees
      */
     public boolean isEventFull(String eventName) {
-        Event event = getEventWithName(eventName);
-        if (event != null) {
-            return event.getAttendees().size() >= event.getCapacity();
-        }
-        else {
-            return true;
-        }
+        return readLocked(() -> {
+            Event event = getEventIndex().get(eventName);
+            if (event != null) {
+                return seatsTaken.get(eventName).get() >= event.getCapacity();
+            }
+            else {
+                return true;
+            }
+        });
     }
 
     /**
      * Adds a username to an Entity.Event's list of attendance if Entity.Event is not full.
      * @param username - username to be added
      * @param eventName - name of the event to which the username is added to
+     * @return true if and only if the username is on the list of attendance afterwards
      */
-    public void addUserToEvent(String username, String eventName, RoomManager rm) {
-        if(hasEvent(eventName)) {
-            Event event = getEventWithName(eventName);
-            if (event != null) {
-                Room room = rm.getRoomWithCode(event.getRoomCode());
-                if (event.getAttendees().size() + 1 <= room.getCapacity()) {
-                    event.addAttendee(username);
+    public boolean addUserToEvent(String username, String eventName) {
+        return signUpForEvent(username, eventName, null);
+    }
+
+    /**
+     * Signs a user up for an event if it is not full, adding the user to the list of attendance of the event and the
+     * event to the events of the user together, so that no other thread ever sees one without the other
+     * @param username - username of the user
+     * @param eventName - name of the event
+     * @param userManager - the UseCase.UserManager of the user
+     * @return true if and only if the user is signed up for the event afterwards
+     */
+    public boolean signUpForEvent(String username, String eventName, UserManager userManager) {
+        return readLocked(() -> {
+            Event event = getEventIndex().get(eventName);
+            if (event == null) {
+                return false;
+            }
+
+            AtomicInteger seats = seatsTaken.get(eventName);
+            if (!reserveSeat(seats, event.getCapacity())) {
+                return event.getAttendees().contains(username);
+            }
+
+            Lock lock = getPartLock(username);
+            lock.lock();
+            try {
+                if (event.getAttendees().add(username)) {
+                    attendeeCount.incrementAndGet();
+                    record(MutationType.ADD_USER_TO_EVENT, username, eventName);
+                }
+                else {
+                    // already attending, so the seat reserved for the user is not needed
+                    seats.decrementAndGet();
                 }
+                if (userManager != null) {
+                    userManager.addEvent(username, eventName);
+                }
+                return true;
+            }
+            finally {
+                lock.unlock();
             }
+        });
+    }
+
+    // Takes one of the seats of an event, unless they are all taken; retried until no other sign-up to the same event
+    // gets in between reading the number of seats taken and taking one
+    private static boolean reserveSeat(AtomicInteger seats, int capacity) {
+        int taken = seats.get();
+        while (taken < capacity) {
+            if (seats.compareAndSet(taken, taken + 1)) {
+                return true;
+            }
+            taken = seats.get();
         }
+        return false;
     }
 
     /**
@@ -257,12 +652,43 @@ public class EventManager implements Serializable {
      * @param eventName - name of event from which the username is removed
      */
     public void removeUserFromEvent(String username, String eventName) {
-        if (hasEvent(eventName)) {
-            Event event = getEventWithName(eventName);
-            if (event != null) {
-                event.removeAttendee(username);
+        cancelSignUp(username, eventName, null);
+    }
+
+    /**
+     * Cancels a user's place in an event, removing the user from the list of attendance of the event and the event
+     * from the events of the user together
+     * @param username - username of the user
+     * @param eventName - name of the event
+     * @param userManager - the UseCase.UserManager of the user
+     */
+    public void cancelSignUp(String username, String eventName, UserManager userManager) {
+        readLocked(() -> {
+            Event event = getEventIndex().get(eventName);
+            if (event == null) {
+                return null;
             }
-        }
+
+            Lock lock = getPartLock(username);
+            lock.lock();
+            try {
+                boolean removed = event.getAttendees().remove(username);
+                record(MutationType.REMOVE_USER_FROM_EVENT, username, eventName);
+                if (removed) {
+                    attendeeCount.decrementAndGet();
+                    // only given up once the cancellation is recorded, so the journal never has the next user to
+                    // take the seat signing up before this user leaves
+                    seatsTaken.get(eventName).decrementAndGet();
+                }
+                if (userManager != null) {
+                    userManager.removeEvent(username, eventName);
+                }
+                return null;
+            }
+            finally {
+                lock.unlock();
+            }
+        });
     }
 
     /**
@@ -273,7 +699,14 @@ public class EventManager implements Serializable {
      * @return True if and only if a new speaker was successfully assigned.
      */
     public boolean assignSpeakerToTalk(String talkName, String speakerName, UserManager userManager) {
-        return talkManager.assignSpeaker(talkName, speakerName, userManager);
+        return writeLocked(() -> {
+            boolean assigned = talkManager.assignSpeaker(talkName, speakerName, userManager);
+            if (assigned) {
+                record(MutationType.ASSIGN_SPEAKER_TO_TALK, talkName, speakerName);
+            }
+
+            return assigned;
+        });
     }
 
     /**
@@ -284,7 +717,14 @@ public class EventManager implements Serializable {
      * @return True if and only if a speaker was successfully added to the discussion
      */
     public boolean addSpeakerToDiscussion(String discussionName, String speakerName, UserManager userManager) {
-        return discussionManager.addSpeaker(discussionName, speakerName, userManager);
+        return writeLocked(() -> {
+            boolean added = discussionManager.addSpeaker(discussionName, speakerName, userManager);
+            if (added) {
+                record(MutationType.ADD_SPEAKER_TO_DISCUSSION, discussionName, speakerName);
+            }
+
+            return added;
+        });
     }
 
     /**
@@ -294,19 +734,27 @@ public class EventManager implements Serializable {
      * @param userManager - A UseCase.UserManager
      */
     public void removeSpeakerFromDiscussion(String discussionName, String speakerName, UserManager userManager) {
-        discussionManager.removeSpeaker(discussionName, speakerName, userManager);
+        writeLocked(() -> {
+            discussionManager.removeSpeaker(discussionName, speakerName, userManager);
+            record(MutationType.REMOVE_SPEAKER_FROM_DISCUSSION, discussionName, speakerName);
+        });
     }
 
     /**
-     * Changes the capacity of an event.
+     * Changes the capacity of an event. Nothing signs up for the event during the change, so every sign-up is checked
+     * against either the old capacity or the new one.
      * @param eventName The name of the event
      * @param newCapacity The new capacity
      */
     public void changeCapacityOfEvent(String eventName, int newCapacity) {
-        Event event = getEventWithName(eventName);
-        if (event != null) {
-            event.setCapacity(newCapacity);
-        }
+        writeLocked(() -> {
+            Event event = getEventIndex().get(eventName);
+            if (event != null) {
+                totalCapacity += newCapacity - event.getCapacity();
+                event.setCapacity(newCapacity);
+                record(MutationType.CHANGE_EVENT_CAPACITY, eventName, String.valueOf(newCapacity));
+            }
+        });
     }
 
     /**
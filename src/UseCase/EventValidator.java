@@ -1,14 +1,10 @@
 package UseCase;
 
 import Entity.Room;
-import Entity.Speaker;
 import UseCase.EventManager;
 import UseCase.RoomManager;
 import UseCase.UserManager;
 
-import java.util.Calendar;
-import java.util.Date;
-
 public class EventValidator {
 
     //This class contains methods involved in the creation/manipulation of Events
@@ -26,7 +22,7 @@ public class EventValidator {
      * @param rm A UseCase.RoomManager
      * @return True if and only if an event without a speaker can be created with these parameters.
      */
-    public boolean isValidSpeakerLessEvent(String name, String roomCode, int capacity, Date[] time, EventManager em,
+    public boolean isValidSpeakerLessEvent(String name, String roomCode, int capacity, long[] time, EventManager em,
                                            RoomManager rm) {
         if(isEventNameTaken(name, em) || !isRoomAvailable(roomCode, time, em, rm) ||
                 !isValidEventCapacity(roomCode, capacity, rm)) {
@@ -51,7 +47,7 @@ public class EventValidator {
      * @param rm A UseCase.RoomManager
      * @return True if and only if an event with a speaker can be created with these parameters.
      */
-    public boolean isValidSpeakerEvent(String name, String speakerName, String roomCode, int capacity, Date[] time,
+    public boolean isValidSpeakerEvent(String name, String speakerName, String roomCode, int capacity, long[] time,
                                         EventManager em, UserManager um, RoomManager rm) {
 
         return isValidSpeakerLessEvent(name, roomCode, capacity, time, em, rm)
@@ -66,7 +62,7 @@ public class EventValidator {
      * @return True if and only if name is already being used by an existing event
      */
     public boolean isEventNameTaken(String name, EventManager em) {
-        return em.getEventNames().contains(name);
+        return em.hasEvent(name);
     }
 
     /**
@@ -108,7 +104,7 @@ public class EventValidator {
      * Checks if a Entity.Speaker is available during a given time interval
      * @param speakerName - name of the speaker
      * @param time - an array where the first element is the beginning of the time interval and the second element is
-     *             the end of the time interval (inclusive).
+     *             the end of the time interval (inclusive), in milliseconds since the epoch.
      * @param um - UseCase.UserManager object used to access the speaker with given speakerName
      * @return true if the Entity.Speaker is not scheduled for an event at any point in the time interval
      *
@@ -116,27 +112,18 @@ public class EventValidator {
      * - time is of length 2
      * - time[0] is chronologically before time[1].
      */
-    public boolean isSpeakerAvailable(String speakerName, Date[] time, UserManager um) {
+    public boolean isSpeakerAvailable(String speakerName, long[] time, UserManager um) {
         if(!um.hasSpeaker(speakerName)) {
             return false;
         }
-        Speaker speaker = um.getSpeaker(speakerName);
-        for (String eventName : speaker.getSchedule().keySet()) {
-            Date startTime = speaker.getSchedule().get(eventName)[0];
-            Date endTime = speaker.getSchedule().get(eventName)[1];
-
-            if(time[0].before(endTime) && time[1].after(startTime)) {
-                return false;
-            }
-        }
-        return true;
+        return um.isSpeakerFree(speakerName, time);
     }
 
     /**
      * Checks if a room is available during a given time interval
      * @param roomCode - room code of the room
      * @param time - an array where the first element is the beginning of the time interval and the second element is
-     *             the end of the time interval (inclusive).
+     *             the end of the time interval (inclusive), in milliseconds since the epoch.
      * @param em - UseCase.EventManager object used to access the time intervals of every event held in this room
      * @param rm - UseCase.RoomManager object used to access the room with given roomCode
      * @return true if the room is not scheduled for an event at any point in the time interval
@@ -145,33 +132,11 @@ public class EventValidator {
      * - time is of length 2
      * - time[0] is chronologically before time[1].
      */
-    public boolean isRoomAvailable(String roomCode, Date[] time, EventManager em, RoomManager rm) {
+    public boolean isRoomAvailable(String roomCode, long[] time, EventManager em, RoomManager rm) {
         if(!rm.hasRoom(roomCode)) {
             return false;
         }
 
-        for (String eventName : rm.getRoomWithCode(roomCode).getEvents()) {
-            Date startTime = em.getEventWithName(eventName).getDateAndTime();
-            Date endTime = getOneHourLater(startTime);
-
-            if(time[0].before(endTime) && time[1].after(startTime)) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    /**
-     * Helper method that returns a Date object exactly 1 hour after the given time.
-     * @param startTime - A Date object of some time
-     * @return A Date object set for exactly 1 hour after startTime
-     */
-    private Date getOneHourLater(Date startTime) {
-        Calendar c = Calendar.getInstance();         // need Calendar to add time, not supported in Date class
-        c.setTime(startTime);                       // convert Date to Calendar
-        c.add(Calendar.HOUR, 1);
-        Date oneHourLater = c.getTime();                // new Date object set one hour later
-
-        return oneHourLater;
+        return em.isRoomFree(roomCode, time);
     }
 }
@@ -0,0 +1,21 @@
+package UseCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A UseCase.MessageStore which simply keeps every message content in memory. Used when no other store is given.
+class HeapMessageStore implements MessageStore {
+
+    private final List<String> contents = new ArrayList<>();
+
+    @Override
+    public synchronized long append(String content) {
+        contents.add(content);
+        return contents.size() - 1;
+    }
+
+    @Override
+    public synchronized String read(long location) {
+        return contents.get((int) location);
+    }
+}
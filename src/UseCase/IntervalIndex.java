@@ -0,0 +1,93 @@
+package UseCase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Intervals of time [start, end), each under a unique name (such as the name of an event), kept in order of their
+// start so that the ones overlapping a given interval are found without looking at any of the others.
+class IntervalIndex<K> {
+
+    // The end of every interval by name, grouped by the start of the interval
+    private final TreeMap<Long, Map<K, Long>> intervalsByStart = new TreeMap<>();
+
+    // The start of every interval by name
+    private final Map<K, Long> starts = new HashMap<>();
+
+    // The length of the longest interval ever added; an interval overlapping [start, end) has to begin after
+    // start - longest, so nothing before that needs to be looked at
+    private long longest;
+
+    /**
+     * Adds an interval, replacing any interval with the same name.
+     * @param name - the name of the interval
+     * @param start - the start of the interval, in milliseconds
+     * @param end - the end of the interval, in milliseconds
+     */
+    void add(K name, long start, long end) {
+        remove(name);
+        intervalsByStart.computeIfAbsent(start, s -> new HashMap<>()).put(name, end);
+        starts.put(name, start);
+        longest = Math.max(longest, end - start);
+    }
+
+    /**
+     * Removes the interval with the given name, if there is one.
+     * @param name - the name of the interval
+     */
+    void remove(K name) {
+        Long start = starts.remove(name);
+        if (start != null) {
+            Map<K, Long> intervals = intervalsByStart.get(start);
+            intervals.remove(name);
+            if (intervals.isEmpty()) {
+                intervalsByStart.remove(start);
+            }
+        }
+    }
+
+    /**
+     * Checks whether any interval overlaps [start, end).
+     * @param start - the start of the interval being checked, in milliseconds
+     * @param end - the end of the interval being checked, in milliseconds
+     * @return true if and only if some interval begins before end and ends after start
+     */
+    boolean overlaps(long start, long end) {
+        for (Map<K, Long> intervals : getCandidates(start, end).values()) {
+            for (long intervalEnd : intervals.values()) {
+                if (intervalEnd > start) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fetches the names of the intervals overlapping [start, end).
+     * @param start - the start of the interval being checked, in milliseconds
+     * @param end - the end of the interval being checked, in milliseconds
+     * @return the name of every interval which begins before end and ends after start
+     */
+    List<K> getOverlapping(long start, long end) {
+        List<K> overlapping = new ArrayList<>();
+        for (Map<K, Long> intervals : getCandidates(start, end).values()) {
+            for (Map.Entry<K, Long> interval : intervals.entrySet()) {
+                if (interval.getValue() > start) {
+                    overlapping.add(interval.getKey());
+                }
+            }
+        }
+        return overlapping;
+    }
+
+    // The intervals which begin late enough that they could end after start, and before end
+    private Map<Long, Map<K, Long>> getCandidates(long start, long end) {
+        if (end <= start - longest) {
+            return new TreeMap<>();
+        }
+        return intervalsByStart.subMap(start - longest, false, end, false);
+    }
+}
@@ -0,0 +1,169 @@
+package UseCase;
+
+import Util.MutationType;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+abstract class JournaledManager implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // The number of locks the parts of a manager are shared out between; a power of two
+    private static final int STRIPES = 64;
+
+    // The changes made to this manager which have not been written to the journal yet
+    private transient List<Mutation> pendingMutations;
+
+    // Held shared by anything which only reads this manager or changes a single part of it (under the lock of that
+    // part), and exclusively by anything which adds or removes parts or changes more than one at once
+    private transient ReadWriteLock structureLock = new ReentrantReadWriteLock();
+
+    // The locks of the parts of this manager (such as one event or one user), shared out between them by name so
+    // that changes to different parts can usually be made at the same time
+    private transient Lock[] partLocks = newPartLocks();
+
+    private static Lock[] newPartLocks() {
+        Lock[] locks = new Lock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        readObjectNoData();
+    }
+
+    // Managers saved before they were journaled have nothing of this class in their files
+    private void readObjectNoData() {
+        structureLock = new ReentrantReadWriteLock();
+        partLocks = newPartLocks();
+    }
+
+    /**
+     * Runs something which only reads this manager, or changes a single part of it under the lock of that part.
+     * Any number of these can run at once, but none while the structure of the manager is changing.
+     * @param action What to run
+     * @return What the action returns
+     */
+    protected <T> T readLocked(Supplier<T> action) {
+        structureLock.readLock().lock();
+        try {
+            return action.get();
+        }
+        finally {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs something which changes the structure of this manager, while nothing else uses it.
+     * @param action What to run
+     * @return What the action returns
+     */
+    protected <T> T writeLocked(Supplier<T> action) {
+        structureLock.writeLock().lock();
+        try {
+            return action.get();
+        }
+        finally {
+            structureLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs something which changes the structure of this manager, while nothing else uses it.
+     * @param action What to run
+     */
+    protected void writeLocked(Runnable action) {
+        writeLocked(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Waits until nothing else is using this manager, and keeps anything else from using it until unlockExclusive is
+     * called, such as while a copy of it is taken which no change may be half way through.
+     */
+    public void lockExclusive() {
+        structureLock.writeLock().lock();
+    }
+
+    /**
+     * Lets everything else use this manager again; called once for each call to lockExclusive.
+     */
+    public void unlockExclusive() {
+        structureLock.writeLock().unlock();
+    }
+
+    /**
+     * Fetches the lock of one part of this manager. Parts with the same name always have the same lock, and a few
+     * parts with different names share one.
+     * @param name The name of the part, such as the name of an event or the username of a user
+     * @return The lock of the part
+     */
+    protected Lock getPartLock(String name) {
+        int hash = name.hashCode();
+        return partLocks[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    /**
+     * Remembers a change made to this manager so that it can be written to the journal.
+     * @param type The kind of change made
+     * @param args The arguments needed to make the change again
+     */
+    protected synchronized void record(MutationType type, String... args) {
+        if (pendingMutations == null) {
+            pendingMutations = new ArrayList<>();
+        }
+        // numbered while holding the monitor, so the pending changes stay in the order of their sequence numbers
+        pendingMutations.add(new Mutation(type, args));
+    }
+
+    /**
+     * Fetches and forgets the changes made to this manager since the last time this method was called.
+     * @return The changes in the order they were made
+     */
+    public synchronized List<Mutation> drainMutations() {
+        List<Mutation> mutations = pendingMutations == null ? new ArrayList<>() : pendingMutations;
+        pendingMutations = null;
+
+        return mutations;
+    }
+
+    /**
+     * Checks whether this manager has changed since the last time drainMutations was called.
+     * @return True if and only if there are changes which have not been drained yet
+     */
+    public synchronized boolean hasPendingMutations() {
+        return pendingMutations != null && !pendingMutations.isEmpty();
+    }
+
+    /**
+     * Checks whether this manager has changed in one of the given ways since the last time drainMutations was called.
+     * @param types The kinds of change looked for
+     * @return True if and only if a change of one of those kinds has not been drained yet
+     */
+    public synchronized boolean hasPendingMutations(Set<MutationType> types) {
+        if (pendingMutations != null) {
+            for (Mutation mutation : pendingMutations) {
+                if (types.contains(mutation.getType())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -2,18 +2,326 @@ package UseCase;
 
 import Entity.Event;
 import Entity.Message;
+import Util.MutationType;
 
-import java.io.Serializable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.*;
 
-public class MessageManager implements Serializable {
+// Any number of threads can use a UseCase.MessageManager, one at a time: even reading a message updates the recent
+// contents and the indexes, so everything is done while nothing else uses the manager.
+public class MessageManager extends JournaledManager {
 
-    private List<Message> allMessages = new ArrayList<>();
+    // The same as before the managers were journaled, so that files saved by those versions can still be read
+    private static final long serialVersionUID = -1388343625477604895L;
+
+    // The most message contents kept in memory after they are sent or read
+    private static final int RECENT_CONTENTS_LIMIT = 256;
+
+    // The messages in the order they were sent, along with deleted messages which have not been compacted away yet.
+    // Ids only increase along the list, and since messages are only ever removed from it, a message's position in
+    // this list is at most its id.
+    private List<MessageRecord> allMessages = new ArrayList<>();
+
+    // The messages sent to many users at once, by the id of their first copy. The ids of a broadcast's copies are
+    // not in allMessages; they lie in gaps between the ids of the messages there.
+    private TreeMap<Integer, Broadcast> broadcasts = new TreeMap<>();
+
+    // The id the next message sent will be given
+    private int nextId;
+
+    // How many of the messages in allMessages are deleted
+    private int deletedCount;
+
+    // Where the contents of the messages are kept
+    private transient MessageStore messageStore;
+
+    // The contents of the most recently sent or read messages, by location in the UseCase.MessageStore
+    private transient Map<Long, String> recentContents;
+
+    // The messages between each pair of users, in the order they were sent, by the key of the pair; rebuilt from
+    // allMessages when missing (e.g. after deserialization)
+    private transient Map<String, List<MessageRecord>> threadIndex;
+
+    // Each user's inbox, by username; built along with threadIndex
+    private transient Map<String, Inbox> inboxes;
+
+    /**
+     * Create a new UseCase.MessageManager with no messages, which keeps message contents in memory.
+     */
+    public MessageManager(){
+        this(new HeapMessageStore());
+    }
 
     /**
      * Create a new UseCase.MessageManager with no messages.
+     * @param messageStore - where the contents of the messages are kept
+     */
+    public MessageManager(MessageStore messageStore) {
+        this.messageStore = messageStore;
+    }
+
+    /**
+     * Recreates a UseCase.MessageManager holding the given messages, such as ones loaded from a snapshot.
+     * @param messageStore - where the contents of the messages are kept
+     * @param messages - The messages which are not deleted, in the order they were sent
+     * @param broadcasts - The broadcasts of which some copy is not deleted
+     * @param nextId - The id the next message sent will be given, which is greater than the id of every message
+     */
+    public MessageManager(MessageStore messageStore, List<MessageRecord> messages, List<Broadcast> broadcasts,
+                          int nextId) {
+        this.messageStore = messageStore;
+        allMessages.addAll(messages);
+        for (Broadcast broadcast : broadcasts) {
+            this.broadcasts.put(broadcast.getFirstId(), broadcast);
+        }
+        this.nextId = nextId;
+    }
+
+    // Managers saved before message contents were kept in a UseCase.MessageStore hold each message as an
+    // Entity.Message, whose id was its position; their contents are kept in memory until moveContentsTo is called
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        messageStore = new HeapMessageStore();
+        if (broadcasts == null) {
+            broadcasts = new TreeMap<>();
+        }
+
+        List<MessageRecord> records = new ArrayList<>();
+        for (Object saved : (List<?>) allMessages) {
+            records.add(saved instanceof Message ? store((Message) saved, nextId++) : (MessageRecord) saved);
+        }
+        allMessages = records;
+    }
+
+    /**
+     * Moves the contents of every message into another UseCase.MessageStore, such as when this UseCase.MessageManager
+     * was read from a file saved before message contents were kept in one.
+     * @param newStore - where the contents of the messages are kept from now on
+     */
+    public void moveContentsTo(MessageStore newStore) {
+        writeLocked(() -> {
+            List<MessageRecord> movedMessages = new ArrayList<>();
+            for (MessageRecord message : allMessages) {
+                if (!message.isDeleted()) {
+                    long location = newStore.append(getContent(message));
+                    movedMessages.add(new MessageRecord(message.getId(), message.getSender(), message.getReceiver(),
+                            location, message.getReadStatus(), message.getArchivedStatus()));
+                }
+            }
+
+            TreeMap<Integer, Broadcast> movedBroadcasts = new TreeMap<>();
+            for (Broadcast broadcast : broadcasts.values()) {
+                long location = newStore.append(messageStore.read(broadcast.getContentLocation()));
+                movedBroadcasts.put(broadcast.getFirstId(), new Broadcast(broadcast.getFirstId(),
+                        broadcast.getSender(), broadcast.getReceivers(), location, broadcast.getReadStatuses(),
+                        broadcast.getArchivedStatuses(), broadcast.getDeletedStatuses()));
+            }
+
+            allMessages = movedMessages;
+            broadcasts = movedBroadcasts;
+            deletedCount = 0;
+            messageStore = newStore;
+            // the locations of the contents have all changed, and the indexes hold the old records
+            recentContents = null;
+            threadIndex = null;
+            inboxes = null;
+        });
+    }
+
+    // A user's threads, from least to most recently active
+    private static class Inbox {
+        // A summary of each thread, by the other user of the thread
+        final Map<String, InboxThread> threads = new HashMap<>();
+        // The other user of each thread, by the id of the last message in the thread
+        final TreeMap<Integer, String> byLastMessage = new TreeMap<>();
+    }
+
+    // What an inbox keeps for each thread
+    private static class InboxThread {
+        // The most recent message in the thread
+        MessageRecord lastMessage;
+        // How many messages in the thread the owner of the inbox has received and not read
+        int unreadCount;
+    }
+
+    // Fetches the index of threads, building it and the inboxes if this is the first time it is needed
+    private Map<String, List<MessageRecord>> getThreadIndex() {
+        if (threadIndex == null) {
+            threadIndex = new HashMap<>();
+            inboxes = new HashMap<>();
+
+            // the copies of the broadcasts are indexed in between the other messages, so that every thread stays in
+            // order of id
+            Iterator<Broadcast> unindexed = broadcasts.values().iterator();
+            Broadcast broadcast = unindexed.hasNext() ? unindexed.next() : null;
+            for (MessageRecord message : allMessages) {
+                while (broadcast != null && broadcast.getFirstId() < message.getId()) {
+                    index(broadcast);
+                    broadcast = unindexed.hasNext() ? unindexed.next() : null;
+                }
+                if (!message.isDeleted()) {
+                    index(message);
+                }
+            }
+            while (broadcast != null) {
+                index(broadcast);
+                broadcast = unindexed.hasNext() ? unindexed.next() : null;
+            }
+        }
+
+        return threadIndex;
+    }
+
+    // Adds a message to the end of its thread, and makes the thread the most recent in the inboxes of its sender and
+    // receiver
+    private void index(MessageRecord message) {
+        threadIndex.computeIfAbsent(getThreadKey(message.getSender(), message.getReceiver()),
+                key -> new ArrayList<>()).add(message);
+
+        setLastMessage(message.getSender(), message.getReceiver(), message);
+        setLastMessage(message.getReceiver(), message.getSender(), message);
+        if (!message.getReadStatus()) {
+            getInboxThread(message.getReceiver(), message.getSender()).unreadCount++;
+        }
+    }
+
+    // Adds every copy of a broadcast which is not deleted to the end of its thread
+    private void index(Broadcast broadcast) {
+        int end = broadcast.getFirstId() + broadcast.getReceivers().size();
+        for (int id = broadcast.getFirstId(); id < end; id++) {
+            MessageRecord message = broadcast.getMessage(id);
+            if (message != null) {
+                index(message);
+            }
+        }
+    }
+
+    // Sets the last message of the thread with otherUser in the inbox of user, adding the thread if there is none, or
+    // removing it if there is no last message
+    private void setLastMessage(String user, String otherUser, MessageRecord lastMessage) {
+        Inbox inbox = inboxes.computeIfAbsent(user, username -> new Inbox());
+        InboxThread thread = inbox.threads.computeIfAbsent(otherUser, username -> new InboxThread());
+
+        if (thread.lastMessage != null) {
+            inbox.byLastMessage.remove(thread.lastMessage.getId());
+        }
+        thread.lastMessage = lastMessage;
+        if (lastMessage != null) {
+            inbox.byLastMessage.put(lastMessage.getId(), otherUser);
+        }
+        else {
+            inbox.threads.remove(otherUser);
+        }
+    }
+
+    // Fetches the inbox of a user, which is empty if they have no threads
+    private Inbox getInbox(String user) {
+        getThreadIndex();
+        return inboxes.getOrDefault(user, new Inbox());
+    }
+
+    // Fetches the summary of the thread with otherUser in the inbox of user, or null if there is no such thread
+    private InboxThread getInboxThread(String user, String otherUser) {
+        return getInbox(user).threads.get(otherUser);
+    }
+
+    // Sets whether a message is read, keeping the unread count of its receiver's thread up to date
+    private void setRead(MessageRecord message, boolean read) {
+        if (message.getReadStatus() != read) {
+            message.setRead(read);
+            getInboxThread(message.getReceiver(), message.getSender()).unreadCount += read ? -1 : 1;
+        }
+    }
+
+    // Fetches the messages between two users, in the order they were sent
+    private List<MessageRecord> getThreadMessages(String user1, String user2) {
+        return getThreadIndex().getOrDefault(getThreadKey(user1, user2), Collections.emptyList());
+    }
+
+    // The same key for a pair of users whichever way round they are given; usernames never contain a line break
+    private static String getThreadKey(String user1, String user2) {
+        return user1.compareTo(user2) <= 0 ? user1 + "\n" + user2 : user2 + "\n" + user1;
+    }
+
+    // Gives a new message the next id, and adds it to the end of the list of all messages and of its thread
+    private void add(Message message) {
+        getThreadIndex();
+        MessageRecord record = store(message, nextId++);
+        allMessages.add(record);
+        index(record);
+    }
+
+    // Fetches the message with the given id, or null if there is none (or it is deleted)
+    private MessageRecord getMessage(int id) {
+        Broadcast broadcast = getBroadcast(id);
+        if (broadcast != null) {
+            return broadcast.getMessage(id);
+        }
+        if (id < 0 || allMessages.isEmpty()) {
+            return null;
+        }
+
+        // the message is at its id unless messages before it have been compacted away, so that is the first place
+        // to look, and otherwise it is somewhere before there
+        int low = 0;
+        int high = Math.min(id, allMessages.size() - 1);
+        int middle = high;
+        while (low <= high) {
+            MessageRecord message = allMessages.get(middle);
+            if (message.getId() == id) {
+                return message.isDeleted() ? null : message;
+            }
+            else if (message.getId() < id) {
+                low = middle + 1;
+            }
+            else {
+                high = middle - 1;
+            }
+            middle = (low + high) >>> 1;
+        }
+
+        return null;
+    }
+
+    // Fetches the broadcast which the message with the given id is a copy of, or null if it is not a copy of one
+    private Broadcast getBroadcast(int id) {
+        Map.Entry<Integer, Broadcast> entry = broadcasts.floorEntry(id);
+        return entry != null && entry.getValue().contains(id) ? entry.getValue() : null;
+    }
+
+    /**
+     * Fetches every message which is not deleted and not a copy of a broadcast, in the order they were sent.
+     * @return The list of messages
+     */
+    public List<MessageRecord> getMessages() {
+        return writeLocked(() -> {
+            List<MessageRecord> messages = new ArrayList<>(allMessages.size() - deletedCount);
+            for (MessageRecord message : allMessages) {
+                if (!message.isDeleted()) {
+                    messages.add(message);
+                }
+            }
+
+            return messages;
+        });
+    }
+
+    /**
+     * Fetches every broadcast of which some copy is not deleted, in the order they were sent.
+     * @return The list of broadcasts
+     */
+    public List<Broadcast> getBroadcasts() {
+        return writeLocked(() -> new ArrayList<>(broadcasts.values()));
+    }
+
+    /**
+     * Fetches the id the next message sent will be given.
+     * @return The next id
      */
-    public MessageManager(){}
+    public int getNextId() {
+        return writeLocked(() -> nextId);
+    }
 
     /**
      * Create a new message and store it.
@@ -22,14 +330,49 @@ public class MessageManager implements Serializable {
      * @param receiver - Entity.User that is receiving the message.
      */
     public void messageUser(String messageContent, String sender, String receiver){
-        MessageBuilder messageBuilder = new MessageBuilder();
-        messageBuilder.buildMessageContent(messageContent);
-        messageBuilder.buildSenderUsername(sender);
-        messageBuilder.buildReceiverUsername(receiver);
+        writeLocked(() -> {
+            MessageBuilder messageBuilder = new MessageBuilder();
+            messageBuilder.buildMessageContent(messageContent);
+            messageBuilder.buildSenderUsername(sender);
+            messageBuilder.buildReceiverUsername(receiver);
 
-        Message message = messageBuilder.getMessage();
+            Message message = messageBuilder.getMessage();
 
-        allMessages.add(message);
+            add(message);
+            record(MutationType.MESSAGE_USER, messageContent, sender, receiver);
+        });
+    }
+
+    /**
+     * Sends the same message to many users. The content is stored only once, however many users receive it, and each
+     * user's copy shows up in their thread with the sender like any other message.
+     * @param messageContent - Content of the message.
+     * @param sender - Entity.User that is sending the message.
+     * @param receivers - Users that are receiving the message.
+     */
+    public void messageUsers(String messageContent, String sender, Collection<String> receivers) {
+        writeLocked(() -> {
+            if (receivers.isEmpty()) {
+                return;
+            }
+
+            getThreadIndex();
+            long location = messageStore.append(messageContent);
+            getRecentContents().put(location, messageContent);
+
+            List<String> receiverList = new ArrayList<>(receivers);
+            Broadcast broadcast = new Broadcast(nextId, sender, receiverList, location, new BitSet(), new BitSet(),
+                    new BitSet());
+            nextId += receiverList.size();
+            broadcasts.put(broadcast.getFirstId(), broadcast);
+            index(broadcast);
+
+            List<String> args = new ArrayList<>(receiverList.size() + 2);
+            args.add(messageContent);
+            args.add(sender);
+            args.addAll(receiverList);
+            record(MutationType.MESSAGE_USERS, args.toArray(new String[0]));
+        });
     }
 
     /**
@@ -38,18 +381,24 @@ public class MessageManager implements Serializable {
      * @param receivedMessageId - The id of the message the Entity.User is responding to.
      */
     public void respondToMessage(String newMessageContent, Integer receivedMessageId){
-        Message receivedMessage = allMessages.get(receivedMessageId);
-        receivedMessage.readMessage();
-        String recipientUsername = receivedMessage.getSender();
-        String senderUsername = receivedMessage.getReceiver();
+        writeLocked(() -> {
+            MessageRecord receivedMessage = getMessage(receivedMessageId);
+            if (receivedMessage == null) {
+                return;
+            }
+            setRead(receivedMessage, true);
+            String recipientUsername = receivedMessage.getSender();
+            String senderUsername = receivedMessage.getReceiver();
 
-        MessageBuilder messageBuilder = new MessageBuilder();
-        messageBuilder.buildMessageContent(newMessageContent);
-        messageBuilder.buildSenderUsername(senderUsername);
-        messageBuilder.buildReceiverUsername(recipientUsername);
+            MessageBuilder messageBuilder = new MessageBuilder();
+            messageBuilder.buildMessageContent(newMessageContent);
+            messageBuilder.buildSenderUsername(senderUsername);
+            messageBuilder.buildReceiverUsername(recipientUsername);
 
-        Message message = messageBuilder.getMessage();
-        allMessages.add(message);
+            Message message = messageBuilder.getMessage();
+            add(message);
+            record(MutationType.RESPOND_TO_MESSAGE, newMessageContent, String.valueOf(receivedMessageId));
+        });
     }
 
     /**
@@ -60,10 +409,7 @@ public class MessageManager implements Serializable {
      * @param userName - the username of the organizer/speaker sending the message.
      */
     public void messageEventAttendees(String messageContent, Event event, String userName){
-        Set<String> attendees = event.getAttendees();
-        for (String attendee : attendees){
-            messageUser(messageContent, userName, attendee);
-        }
+        messageUsers(messageContent, userName, event.getAttendees());
     }
 
     /**
@@ -72,20 +418,20 @@ public class MessageManager implements Serializable {
      * @return list of strings that compose a thread
      */
     public List<String> getExistingThreads(String user) {
-        ArrayList<String> threads = new ArrayList<>();
-
-        for (int i = 0; i < allMessages.size(); i++) {
-            Message message = allMessages.get(i);
-            if (message.getReceiver().equals(user)) {
-                threads.remove(message.getSender());
-                threads.add(message.getSender());
-            } else if (message.getSender().equals(user)) {
-                threads.remove(message.getReceiver());
-                threads.add(message.getReceiver());
-            }
-        }
+        return writeLocked(() -> new ArrayList<>(getInbox(user).byLastMessage.values()));
+    }
 
-        return threads;
+    /**
+     * Counts the messages in a thread which the user has received and not read.
+     * @param mainUser - the user accessing this method
+     * @param otherUser - the other user in the conversation thread
+     * @return number of unread messages from otherUser to mainUser
+     */
+    public int getUnreadCount(String mainUser, String otherUser) {
+        return writeLocked(() -> {
+            InboxThread thread = getInboxThread(mainUser, otherUser);
+            return thread == null ? 0 : thread.unreadCount;
+        });
     }
 
     /**
@@ -94,27 +440,8 @@ public class MessageManager implements Serializable {
      * @param otherUser - the other user in the conversation thread
      * @return list of the messages between these two users
      */
-    private List<Message> getThread(String mainUser, String otherUser) {
-        ArrayList<Message> thread = new ArrayList<>();
-
-        for (int i = 0; i < allMessages.size(); i++) {
-            Message message = allMessages.get(i);
-
-            if (i == allMessages.size() - 1) {
-                message.markAsUnread();
-            }
-
-
-            boolean otherToMain = message.getSender().equals(otherUser) && message.getReceiver().equals(mainUser);
-            boolean mainToOther = message.getSender().equals(mainUser) && message.getReceiver().equals(otherUser);
-
-
-            if (otherToMain || mainToOther) {
-                thread.add(message);
-            }
-        }
-
-        return thread;
+    private List<MessageRecord> getThread(String mainUser, String otherUser) {
+        return new ArrayList<>(getThreadMessages(mainUser, otherUser));
     }
 
     /**
@@ -124,21 +451,15 @@ public class MessageManager implements Serializable {
      * @return list of messages in string form
      */
     public List<String[]> getThreadContents(String mainUser, String otherUser) {
-        ArrayList<String[]> thread = new ArrayList<>();
+        return writeLocked(() -> {
+            ArrayList<String[]> thread = new ArrayList<>();
 
-            for (int i = 0; i < allMessages.size(); i++) {
-                Message message = allMessages.get(i);
-
-                boolean otherToMain = message.getSender().equals(otherUser) && message.getReceiver().equals(mainUser);
-                boolean mainToOther = message.getSender().equals(mainUser) && message.getReceiver().equals(otherUser);
-
-
-                if (otherToMain || mainToOther) {
-                    thread.add(new String[]{String.valueOf(i), message.getSender(), message.getMessageContent(), String.valueOf(message.getReadStatus()), String.valueOf(message.getArchivedStatus())});
-                }
+            for (MessageRecord message : getThreadMessages(mainUser, otherUser)) {
+                thread.add(getContents(message));
             }
 
-        return thread;
+            return thread;
+        });
     }
 
     /**
@@ -148,8 +469,7 @@ public class MessageManager implements Serializable {
      * @return last message in thread between two users
      */
     public String[] getLastMessageFromThread(String mainUser, String otherUser) {
-        List<String[]> thread = getThreadContents(mainUser, otherUser);
-        return thread.get(thread.size()-1);
+        return writeLocked(() -> getContents(getInboxThread(mainUser, otherUser).lastMessage));
     }
 
     /**
@@ -159,28 +479,18 @@ public class MessageManager implements Serializable {
      * @param newMessageContent - the message content of the response
      */
     public void respondToThread(String mainUser, String otherUser, String newMessageContent) {
-        Message lastMessage = null;
-
-        for (int i = 0; i < allMessages.size(); i++) {
-            Message message = allMessages.get(i);
-
-            boolean otherToMain = message.getSender().equals(otherUser) && message.getReceiver().equals(mainUser);
-            boolean mainToOther = message.getSender().equals(mainUser) && message.getReceiver().equals(otherUser);
-
-            if (otherToMain || mainToOther) {
-                lastMessage = message;
+        writeLocked(() -> {
+            if (!getThreadMessages(mainUser, otherUser).isEmpty()) {
+                MessageBuilder messageBuilder = new MessageBuilder();
+                messageBuilder.buildMessageContent(newMessageContent);
+                messageBuilder.buildSenderUsername(mainUser);
+                messageBuilder.buildReceiverUsername(otherUser);
+
+                Message message = messageBuilder.getMessage();
+                add(message);
+                record(MutationType.RESPOND_TO_THREAD, mainUser, otherUser, newMessageContent);
             }
-        }
-
-        if (lastMessage != null) {
-            MessageBuilder messageBuilder = new MessageBuilder();
-            messageBuilder.buildMessageContent(newMessageContent);
-            messageBuilder.buildSenderUsername(mainUser);
-            messageBuilder.buildReceiverUsername(otherUser);
-
-            Message message = messageBuilder.getMessage();
-            allMessages.add(message);
-        }
+        });
     }
 
     /**
@@ -189,13 +499,17 @@ public class MessageManager implements Serializable {
      * @param otherUser - the other user in the conversation thread
      */
     public void markThreadAsRead(String mainUser, String otherUser) {
-        List<Message> thread = getThread(mainUser, otherUser);
+        writeLocked(() -> {
+            List<MessageRecord> thread = getThread(mainUser, otherUser);
 
-        for (Message message : thread) {
-            if (message.getReceiver().equals(mainUser)) {
-                message.readMessage();
+            for (MessageRecord message : thread) {
+                if (message.getReceiver().equals(mainUser)) {
+                    setRead(message, true);
+                }
             }
-        }
+
+            record(MutationType.MARK_THREAD_AS_READ, mainUser, otherUser);
+        });
     }
 
     /**
@@ -203,8 +517,13 @@ public class MessageManager implements Serializable {
      * @param messageId - the id of the message that is being marked as read.
      */
     public void markAsRead(int messageId) {
-        Message message = allMessages.get(messageId);
-        message.readMessage();
+        writeLocked(() -> {
+            MessageRecord message = getMessage(messageId);
+            if (message != null) {
+                setRead(message, true);
+                record(MutationType.MARK_AS_READ, String.valueOf(messageId));
+            }
+        });
     }
 
     /**
@@ -212,8 +531,13 @@ public class MessageManager implements Serializable {
      * @param messageId - the id of the message that is being marked as unread.
      */
     public void markAsUnread(int messageId) {
-        Message message = allMessages.get(messageId);
-        message.markAsUnread();
+        writeLocked(() -> {
+            MessageRecord message = getMessage(messageId);
+            if (message != null) {
+                setRead(message, false);
+                record(MutationType.MARK_AS_UNREAD, String.valueOf(messageId));
+            }
+        });
     }
 
     /**
@@ -221,10 +545,13 @@ public class MessageManager implements Serializable {
      * @param messageId - the id of the message that is being marked as archived.
      */
     public void archiveMessage(int messageId) {
-        Message message = allMessages.get(messageId);
-        if (message != null) {
-            message.archiveMessage();
-        }
+        writeLocked(() -> {
+            MessageRecord message = getMessage(messageId);
+            if (message != null) {
+                message.setArchived(true);
+                record(MutationType.ARCHIVE_MESSAGE, String.valueOf(messageId));
+            }
+        });
     }
 
     /**
@@ -232,17 +559,104 @@ public class MessageManager implements Serializable {
      * @param messageId - the id of the message that is being unarchived.
      */
     public void unArchiveMessage(int messageId) {
-        Message message = allMessages.get(messageId);
-        if (message != null) {
-            message.unarchiveMessage();
-        }
+        writeLocked(() -> {
+            MessageRecord message = getMessage(messageId);
+            if (message != null) {
+                message.setArchived(false);
+                record(MutationType.UNARCHIVE_MESSAGE, String.valueOf(messageId));
+            }
+        });
     }
 
     /**
-     * Deletes a message from the list of all messages.
+     * Deletes a message. The ids of the other messages do not change.
      * @param messageId - the id of the message that is being deleted.
      */
     public void deleteMessage(int messageId) {
-        allMessages.remove(messageId);
+        writeLocked(() -> {
+            MessageRecord message = getMessage(messageId);
+            if (message == null) {
+                return;
+            }
+
+            getThreadIndex();
+            // so that it no longer counts as unread
+            setRead(message, true);
+            message.setDeleted();
+            Broadcast broadcast = getBroadcast(messageId);
+            if (broadcast == null) {
+                deletedCount++;
+            }
+            else if (broadcast.isDeleted()) {
+                broadcasts.remove(broadcast.getFirstId());
+            }
+
+            String key = getThreadKey(message.getSender(), message.getReceiver());
+            List<MessageRecord> thread = threadIndex.get(key);
+            // a copy of a broadcast is not the same object as the one in the thread, so it is found by its id
+            thread.remove(Collections.binarySearch(thread, message, Comparator.comparingInt(MessageRecord::getId)));
+            MessageRecord lastMessage = null;
+            if (thread.isEmpty()) {
+                threadIndex.remove(key);
+            }
+            else {
+                lastMessage = thread.get(thread.size() - 1);
+            }
+            setLastMessage(message.getSender(), message.getReceiver(), lastMessage);
+            setLastMessage(message.getReceiver(), message.getSender(), lastMessage);
+
+            if (deletedCount > allMessages.size() / 2) {
+                compact();
+            }
+
+            record(MutationType.DELETE_MESSAGE, String.valueOf(messageId));
+        });
+    }
+
+    // Removes the deleted messages from the list of all messages. This takes time proportional to the number of
+    // messages, but since it happens only once deleted messages outnumber the rest, deleting stays O(1) on average.
+    private void compact() {
+        allMessages.removeIf(MessageRecord::isDeleted);
+        deletedCount = 0;
+    }
+
+    // Puts the content of a new message in the UseCase.MessageStore, keeping it in memory while it is recent
+    private MessageRecord store(Message message, int id) {
+        long location = messageStore.append(message.getMessageContent());
+        getRecentContents().put(location, message.getMessageContent());
+
+        return new MessageRecord(id, message.getSender(), message.getReceiver(), location, message.getReadStatus(),
+                message.getArchivedStatus());
+    }
+
+    // A message in string form: id, sender, content, read status and archived status
+    private String[] getContents(MessageRecord message) {
+        return new String[]{String.valueOf(message.getId()), message.getSender(), getContent(message),
+                String.valueOf(message.getReadStatus()), String.valueOf(message.getArchivedStatus())};
+    }
+
+    private String getContent(MessageRecord message) {
+        Map<Long, String> recent = getRecentContents();
+        String content = recent.get(message.getContentLocation());
+        if (content == null) {
+            content = messageStore.read(message.getContentLocation());
+            recent.put(message.getContentLocation(), content);
+        }
+
+        return content;
+    }
+
+    private Map<Long, String> getRecentContents() {
+        if (recentContents == null) {
+            // access order, so the least recently used content is the first to go
+            recentContents = new LinkedHashMap<Long, String>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+                    return size() > RECENT_CONTENTS_LIMIT;
+                }
+            };
+        }
+
+        return recentContents;
     }
 }
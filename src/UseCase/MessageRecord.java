@@ -0,0 +1,114 @@
+package UseCase;
+
+import java.io.Serializable;
+
+// What a UseCase.MessageManager keeps in memory for each message. The content itself is in a UseCase.MessageStore.
+public class MessageRecord implements Serializable {
+
+    // The value Java computed for this class before it was declared, so that saved messages can still be read
+    private static final long serialVersionUID = 2500215115039442480L;
+
+    // The id of the message, which never changes
+    private final int id;
+
+    // The username of the sender of the message
+    private final String sender;
+
+    // The username of the recipient of the message
+    private final String receiver;
+
+    // Where the content of the message is in the UseCase.MessageStore
+    private final long contentLocation;
+
+    // Whether the message is read or not
+    private boolean read;
+
+    // Whether the message is archived or not
+    private boolean archived;
+
+    // Whether the message is deleted; a deleted message is kept until the UseCase.MessageManager compacts its messages
+    private boolean deleted;
+
+    /**
+     * Constructs a new UseCase.MessageRecord.
+     * @param id - the id of the message
+     * @param sender - the username of the sender
+     * @param receiver - the username of the recipient
+     * @param contentLocation - where the content of the message is in the UseCase.MessageStore
+     * @param read - whether the message is read
+     * @param archived - whether the message is archived
+     */
+    public MessageRecord(int id, String sender, String receiver, long contentLocation, boolean read,
+                         boolean archived) {
+        this.id = id;
+        this.sender = sender;
+        this.receiver = receiver;
+        this.contentLocation = contentLocation;
+        this.read = read;
+        this.archived = archived;
+    }
+
+    /**
+     * Fetches the id of this message.
+     * @return the id of this message
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Fetches the sender of this message.
+     * @return the username of the sender of this message
+     */
+    public String getSender() {
+        return sender;
+    }
+
+    /**
+     * Fetches the recipient of this message.
+     * @return the username of the recipient of this message
+     */
+    public String getReceiver() {
+        return receiver;
+    }
+
+    /**
+     * Fetches where the content of this message is kept.
+     * @return the location of the content of this message in the UseCase.MessageStore
+     */
+    public long getContentLocation() {
+        return contentLocation;
+    }
+
+    /**
+     * Fetches whether this message is read or not.
+     * @return true iff this message is read
+     */
+    public boolean getReadStatus() {
+        return read;
+    }
+
+    /**
+     * Fetches whether this message is archived or not.
+     * @return true iff this message is archived
+     */
+    public boolean getArchivedStatus() {
+        return archived;
+    }
+
+    void setRead(boolean read) {
+        this.read = read;
+    }
+
+    void setArchived(boolean archived) {
+        this.archived = archived;
+    }
+
+    boolean isDeleted() {
+        return deleted;
+    }
+
+    void setDeleted() {
+        deleted = true;
+    }
+}
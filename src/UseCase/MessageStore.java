@@ -0,0 +1,20 @@
+package UseCase;
+
+// Somewhere to keep the contents of messages outside of the UseCase.MessageManager, so that only what is needed to
+// find a message (its sender, receiver and status) has to be kept in memory.
+public interface MessageStore {
+
+    /**
+     * Stores the content of a message.
+     * @param content The content being stored
+     * @return Where the content was stored, to be passed to read
+     */
+    long append(String content);
+
+    /**
+     * Reads back the content of a message.
+     * @param location Where the content was stored, as returned by append
+     * @return The content of the message
+     */
+    String read(long location);
+}
@@ -0,0 +1,85 @@
+package UseCase;
+
+import Util.MutationType;
+
+public class Mutation {
+
+    // The sequence number of the most recent mutation of this run of the program
+    private static long lastSequence = 0;
+
+    // The position of this mutation in the order all mutations were made
+    private final long sequence;
+
+    // The kind of change this mutation makes
+    private final MutationType type;
+
+    // The arguments needed to make this change again
+    private final String[] args;
+
+    /**
+     * Constructs a new UseCase.Mutation with the next sequence number.
+     * @param type The kind of change made
+     * @param args The arguments needed to make the change again
+     */
+    Mutation(MutationType type, String[] args) {
+        this(nextSequence(), type, args);
+    }
+
+    /**
+     * Constructs a UseCase.Mutation which was read back from storage.
+     * @param sequence The sequence number of the mutation
+     * @param type The kind of change made
+     * @param args The arguments needed to make the change again
+     */
+    public Mutation(long sequence, MutationType type, String[] args) {
+        this.sequence = sequence;
+        this.type = type;
+        this.args = args;
+    }
+
+    /**
+     * Fetches the sequence number of this mutation.
+     * @return The sequence number
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Fetches the kind of change this mutation makes.
+     * @return The type of this mutation
+     */
+    public MutationType getType() {
+        return type;
+    }
+
+    /**
+     * Fetches the arguments of this mutation.
+     * @return The arguments of this mutation
+     */
+    public String[] getArgs() {
+        return args;
+    }
+
+    /**
+     * Fetches the sequence number of the most recently made mutation.
+     * @return The last sequence number handed out
+     */
+    public static synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Makes sure that every mutation made from now on has a sequence number greater than the given one.
+     * @param sequence A sequence number which has already been used
+     */
+    public static synchronized void advanceSequence(long sequence) {
+        if (sequence > lastSequence) {
+            lastSequence = sequence;
+        }
+    }
+
+    private static synchronized long nextSequence() {
+        return ++lastSequence;
+    }
+}
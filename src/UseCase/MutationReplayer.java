@@ -0,0 +1,196 @@
+package UseCase;
+
+import Util.BoardType;
+import Util.MutationType;
+import Util.PermissionLevel;
+import Util.SeatingType;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// This class makes a recorded UseCase.Mutation again on the managers it was originally made on
+// Used when the journal is replayed on top of the last snapshot
+public class MutationReplayer {
+
+    // The mutations which change the UseCase.MessageManager, and only the UseCase.MessageManager
+    private static final Set<MutationType> MESSAGE_MUTATIONS = EnumSet.of(MutationType.MESSAGE_USER,
+            MutationType.RESPOND_TO_MESSAGE, MutationType.RESPOND_TO_THREAD, MutationType.MARK_THREAD_AS_READ,
+            MutationType.MARK_AS_READ, MutationType.MARK_AS_UNREAD, MutationType.ARCHIVE_MESSAGE,
+            MutationType.UNARCHIVE_MESSAGE, MutationType.DELETE_MESSAGE, MutationType.MESSAGE_USERS);
+
+    // The sign-ups refused on replay because their event was full, as username and event name, whose event has not
+    // been added to the user yet. The event is not added to the user either, so the two never disagree.
+    private final Set<List<String>> refusedSignUps = new HashSet<>();
+
+    /**
+     * Checks whether a mutation changes the UseCase.MessageManager. Such mutations never touch the other managers,
+     * and no other mutation touches the UseCase.MessageManager, so the two kinds can be replayed separately.
+     * @param mutation The mutation being checked
+     * @return True if and only if replaying the mutation needs the UseCase.MessageManager
+     */
+    public boolean isMessageMutation(Mutation mutation) {
+        return MESSAGE_MUTATIONS.contains(mutation.getType());
+    }
+
+    /**
+     * Makes the change described by a mutation on the given managers.
+     * @param mutation The mutation being replayed
+     * @param userManager The UseCase.UserManager of this session
+     * @param eventManager The UseCase.EventManager of this session
+     * @param roomManager The UseCase.RoomManager of this session
+     * @param messageManager The UseCase.MessageManager of this session
+     */
+    public void apply(Mutation mutation, UserManager userManager, EventManager eventManager, RoomManager roomManager,
+                      MessageManager messageManager) {
+        String[] args = mutation.getArgs();
+
+        switch (mutation.getType()) {
+            case CREATE_NON_SPEAKER:
+                UserBuilder userBuilder = new UserBuilder();
+                userBuilder.buildUsername(args[0]);
+                userBuilder.buildPassword(args[1]);
+                userBuilder.buildPermissionLevel(PermissionLevel.valueOf(args[2]));
+
+                userManager.createNonSpeaker(userBuilder);
+                break;
+            case CREATE_SPEAKER:
+                SpeakerBuilder speakerBuilder = new SpeakerBuilder();
+                speakerBuilder.buildUsername(args[0]);
+                speakerBuilder.buildPassword(args[1]);
+                speakerBuilder.buildPermissionLevel(PermissionLevel.valueOf(args[2]));
+
+                userManager.createSpeaker(speakerBuilder);
+                break;
+            case REMOVE_USER:
+                userManager.removeUser(args[0]);
+                break;
+            case ADD_EVENT_TO_USER:
+                if (!refusedSignUps.remove(Arrays.asList(args[0], args[1]))) {
+                    userManager.addEvent(args[0], args[1]);
+                }
+                break;
+            case REMOVE_EVENT_FROM_USER:
+                userManager.removeEvent(args[0], args[1]);
+                break;
+            case ADD_EVENT_TO_SPEAKER:
+                long[] timeOfSpeech = {Long.parseLong(args[2]), Long.parseLong(args[3])};
+                userManager.addEventToSpeaker(args[0], args[1], timeOfSpeech);
+                break;
+            case REMOVE_EVENT_FROM_SPEAKER:
+                userManager.removeEventFromSpeaker(args[0], args[1]);
+                break;
+
+            case CREATE_PARTY:
+                PartyBuilder partyBuilder = new PartyBuilder();
+                buildEvent(partyBuilder, args);
+
+                eventManager.createParty(partyBuilder);
+                break;
+            case CREATE_TALK:
+                TalkBuilder talkBuilder = new TalkBuilder();
+                buildEvent(talkBuilder, args);
+                talkBuilder.buildSpeaker(args[5]);
+
+                eventManager.createTalk(talkBuilder);
+                break;
+            case CREATE_DISCUSSION:
+                DiscussionBuilder discussionBuilder = new DiscussionBuilder();
+                buildEvent(discussionBuilder, args);
+                discussionBuilder.addSpeakers(Arrays.asList(args).subList(5, args.length));
+
+                eventManager.createDiscussion(discussionBuilder);
+                break;
+            case REMOVE_EVENT:
+                eventManager.removeEvent(args[0]);
+                break;
+            case ADD_USER_TO_EVENT:
+                List<String> signUp = Arrays.asList(args[0], args[1]);
+                if (eventManager.addUserToEvent(args[0], args[1])) {
+                    refusedSignUps.remove(signUp);
+                }
+                else {
+                    refusedSignUps.add(signUp);
+                    // in case the event was added to the user first
+                    userManager.removeEvent(args[0], args[1]);
+                }
+                break;
+            case REMOVE_USER_FROM_EVENT:
+                eventManager.removeUserFromEvent(args[0], args[1]);
+                break;
+            case ASSIGN_SPEAKER_TO_TALK:
+                eventManager.assignSpeakerToTalk(args[0], args[1], userManager);
+                break;
+            case ADD_SPEAKER_TO_DISCUSSION:
+                eventManager.addSpeakerToDiscussion(args[0], args[1], userManager);
+                break;
+            case REMOVE_SPEAKER_FROM_DISCUSSION:
+                eventManager.removeSpeakerFromDiscussion(args[0], args[1], userManager);
+                break;
+            case CHANGE_EVENT_CAPACITY:
+                eventManager.changeCapacityOfEvent(args[0], Integer.parseInt(args[1]));
+                break;
+
+            case CREATE_ROOM:
+                RoomBuilder roomBuilder = new RoomBuilder();
+                roomBuilder.buildRoomCode(args[0]);
+                roomBuilder.buildCapacity(Integer.parseInt(args[1]));
+                roomBuilder.buildBoard(BoardType.valueOf(args[2]));
+                roomBuilder.buildSeats(SeatingType.valueOf(args[3]));
+                roomBuilder.buildSpeakerphone(Boolean.parseBoolean(args[4]));
+                roomBuilder.buildProjector(Boolean.parseBoolean(args[5]));
+                roomBuilder.buildFood(Boolean.parseBoolean(args[6]));
+
+                roomManager.createRoom(roomBuilder);
+                break;
+            case ADD_EVENT_TO_ROOM:
+                roomManager.addEvent(args[0], args[1]);
+                break;
+            case REMOVE_EVENT_FROM_ROOM:
+                roomManager.removeEvent(args[0], args[1]);
+                break;
+
+            case MESSAGE_USER:
+                messageManager.messageUser(args[0], args[1], args[2]);
+                break;
+            case MESSAGE_USERS:
+                messageManager.messageUsers(args[0], args[1], Arrays.asList(args).subList(2, args.length));
+                break;
+            case RESPOND_TO_MESSAGE:
+                messageManager.respondToMessage(args[0], Integer.parseInt(args[1]));
+                break;
+            case RESPOND_TO_THREAD:
+                messageManager.respondToThread(args[0], args[1], args[2]);
+                break;
+            case MARK_THREAD_AS_READ:
+                messageManager.markThreadAsRead(args[0], args[1]);
+                break;
+            case MARK_AS_READ:
+                messageManager.markAsRead(Integer.parseInt(args[0]));
+                break;
+            case MARK_AS_UNREAD:
+                messageManager.markAsUnread(Integer.parseInt(args[0]));
+                break;
+            case ARCHIVE_MESSAGE:
+                messageManager.archiveMessage(Integer.parseInt(args[0]));
+                break;
+            case UNARCHIVE_MESSAGE:
+                messageManager.unArchiveMessage(Integer.parseInt(args[0]));
+                break;
+            case DELETE_MESSAGE:
+                messageManager.deleteMessage(Integer.parseInt(args[0]));
+                break;
+        }
+    }
+
+    // Helper which builds the parameters shared by every kind of event
+    private void buildEvent(EventBuilder eventBuilder, String[] args) {
+        eventBuilder.buildName(args[0]);
+        eventBuilder.buildStartTime(Long.parseLong(args[1]));
+        eventBuilder.buildRoomCode(args[2]);
+        eventBuilder.buildCapacity(Integer.parseInt(args[3]));
+        eventBuilder.buildIsVip(Boolean.parseBoolean(args[4]));
+    }
+}
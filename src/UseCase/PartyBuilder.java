@@ -5,7 +5,7 @@ import Entity.Party;
 public class PartyBuilder extends EventBuilder {
     @Override
     public Party getInstance() {
-        Party party = new Party(name, dateAndTime, roomCode, capacity);
+        Party party = new Party(name, startTime, roomCode, capacity);
         party.setVipEvent(isVip);
 
         return party;
@@ -3,10 +3,15 @@ package UseCase;
 import Entity.Party;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
 public class PartyManager implements Serializable {
+
+    // Pinned, so that files saved by earlier versions can still be read
+    private static final long serialVersionUID = -5430495397783355658L;
+
     // list of parties
     private Set<Party> parties;
 
@@ -17,6 +22,14 @@ public class PartyManager implements Serializable {
         parties = new HashSet<>();
     }
 
+    /**
+     * Recreates a UseCase.PartyManager holding the given parties
+     * @param parties The parties to be managed
+     */
+    public PartyManager(Collection<Party> parties) {
+        this.parties = new HashSet<>(parties);
+    }
+
     /**
      * Fetches all of the parties of this UseCase.PartyManager
      * @return The list of parties
@@ -78,8 +91,12 @@ public class PartyManager implements Serializable {
     /**
      * Creates a party from the given UseCase.PartyBuilder
      * @param partyBuilder The UseCase.PartyBuilder to be used
+     * @return The new party
      */
-    public void createParty(PartyBuilder partyBuilder) {
-        parties.add(partyBuilder.getInstance());
+    public Party createParty(PartyBuilder partyBuilder) {
+        Party party = partyBuilder.getInstance();
+        parties.add(party);
+
+        return party;
     }
 }
@@ -2,23 +2,132 @@ package UseCase;
 
 import Entity.Room;
 import Util.BoardType;
+import Util.MutationType;
 import Util.SeatingType;
 
-import java.io.Serializable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
-public class RoomManager implements Serializable {
+// Any number of threads can use a UseCase.RoomManager at once. Rooms are created, and events added to and removed
+// from them, while nothing else uses the manager.
+public class RoomManager extends JournaledManager {
+
+    // The same as before the managers were journaled, so that files saved by those versions can still be read
+    private static final long serialVersionUID = 8122164476977675333L;
 
     // list of rooms
     private Set<Room> rooms;
 
+    // The same rooms by room code; built from rooms when this manager is created or deserialized, along with the
+    // amenity index below, so that threads sharing the manager never race to build them
+    private transient Map<String, Room> roomIndex;
+
+    // Each room is given a number (its position in this list), which is its bit in the amenity bitsets below
+    private transient List<Room> numberedRooms;
+    private transient Map<BoardType, BitSet> roomsByBoard;
+    private transient Map<SeatingType, BitSet> roomsBySeating;
+    private transient BitSet roomsWithProjector;
+    private transient BitSet roomsWithSpeakerphone;
+    private transient BitSet roomsWithFood;
+
     /**
      * Creates a new UseCase.RoomManager with no rooms.
      */
     public RoomManager() {
         rooms = new HashSet<>();
+        getRoomIndex();
+    }
+
+    /**
+     * Recreates a UseCase.RoomManager holding the given rooms, such as ones loaded from a snapshot.
+     * @param rooms The rooms to be managed
+     */
+    public RoomManager(Collection<Room> rooms) {
+        this.rooms = new HashSet<>(rooms);
+        getRoomIndex();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        getRoomIndex();
+    }
+
+    // Fetches the index of rooms by room code, building it and the amenity index if they are not built yet
+    private Map<String, Room> getRoomIndex() {
+        if (roomIndex == null) {
+            roomIndex = new HashMap<>();
+            numberedRooms = new ArrayList<>();
+            roomsByBoard = new EnumMap<>(BoardType.class);
+            roomsBySeating = new EnumMap<>(SeatingType.class);
+            roomsWithProjector = new BitSet();
+            roomsWithSpeakerphone = new BitSet();
+            roomsWithFood = new BitSet();
+
+            for (Room room : rooms) {
+                index(room);
+            }
+        }
+
+        return roomIndex;
+    }
+
+    // Adds a room to the index by room code and to the amenity index
+    private void index(Room room) {
+        int number = numberedRooms.size();
+        numberedRooms.add(room);
+        roomIndex.put(room.getRoomCode(), room);
+
+        roomsByBoard.computeIfAbsent(room.getBoard(), board -> new BitSet()).set(number);
+        roomsBySeating.computeIfAbsent(room.getSeatingArrangement(), seating -> new BitSet()).set(number);
+        roomsWithProjector.set(number, room.hasProjector());
+        roomsWithSpeakerphone.set(number, room.hasSharedSpeakerphone());
+        roomsWithFood.set(number, room.canGetFood());
+    }
+
+    /**
+     * Fetches the room codes of every room with exactly the given features.
+     * @param board The desired board
+     * @param seating The desired seating
+     * @param hasProjector Whether or not the rooms should have a projector
+     * @param hasSpeakerphone Whether or not the rooms should have a shared speakerphone
+     * @param canGetFood Whether or not the rooms can order food
+     * @return The room codes of the matching rooms
+     */
+    public Set<String> getRoomsWithFeatures(BoardType board, SeatingType seating, boolean hasProjector,
+                                            boolean hasSpeakerphone, boolean canGetFood) {
+        return readLocked(() -> {
+            BitSet matches = (BitSet) roomsByBoard.getOrDefault(board, new BitSet()).clone();
+            matches.and(roomsBySeating.getOrDefault(seating, new BitSet()));
+            intersect(matches, roomsWithProjector, hasProjector);
+            intersect(matches, roomsWithSpeakerphone, hasSpeakerphone);
+            intersect(matches, roomsWithFood, canGetFood);
+
+            Set<String> roomCodes = new HashSet<>();
+            for (int number = matches.nextSetBit(0); number >= 0; number = matches.nextSetBit(number + 1)) {
+                roomCodes.add(numberedRooms.get(number).getRoomCode());
+            }
+
+            return roomCodes;
+        });
+    }
+
+    // Keeps only the rooms which have the amenity, or only the rooms which do not
+    private void intersect(BitSet matches, BitSet roomsWithAmenity, boolean wanted) {
+        if (wanted) {
+            matches.and(roomsWithAmenity);
+        }
+        else {
+            matches.andNot(roomsWithAmenity);
+        }
     }
 
     /**
@@ -26,7 +135,7 @@ public class RoomManager implements Serializable {
      * @return The rooms managed by this UseCase.RoomManager
      */
     public Set<Room> getRooms() {
-        return rooms;
+        return readLocked(() -> new HashSet<>(rooms));
     }
 
     /**
@@ -34,13 +143,7 @@ public class RoomManager implements Serializable {
      * @return a list of all the room codes of all the rooms stored by this UseCase.EventManager
      */
     public Set<String> getRoomCodes() {
-        Set<String> roomCodes = new HashSet<>();
-
-        for(Room room: rooms) {
-            roomCodes.add(room.getRoomCode());
-        }
-
-        return roomCodes;
+        return readLocked(() -> new HashSet<>(getRoomIndex().keySet()));
     }
 
     /**
@@ -49,12 +152,7 @@ public class RoomManager implements Serializable {
      * @return a Entity.Room object
      */
     public Room getRoomWithCode(String roomCode) {
-        for(Room room: rooms) {
-            if (room.getRoomCode().equals(roomCode)) {
-                return room;
-            }
-        }
-        return null;
+        return readLocked(() -> getRoomIndex().get(roomCode));
     }
 
     /**
@@ -79,8 +177,7 @@ public class RoomManager implements Serializable {
      * A room with roomCode exists
      */
     public Collection<String> getEventsOfRoom(String roomCode) {
-        Room room = getRoomWithCode(roomCode);
-        return room.getEvents();
+        return readLocked(() -> new HashSet<>(getRoomWithCode(roomCode).getEvents()));
     }
 
     /**
@@ -154,7 +251,7 @@ public class RoomManager implements Serializable {
      * @return true if and only if a room with that code exists
      */
     public boolean hasRoom(String roomCode) {
-        return getRoomCodes().contains(roomCode);
+        return readLocked(() -> getRoomIndex().containsKey(roomCode));
     }
 
     /**
@@ -162,9 +259,16 @@ public class RoomManager implements Serializable {
      */
     public void createRoom(RoomBuilder roomBuilder) {
         Room room = roomBuilder.getRoom();
-        if (!getRoomCodes().contains(room.getRoomCode())) {
-            rooms.add(room);
-        }
+        writeLocked(() -> {
+            if (!hasRoom(room.getRoomCode())) {
+                rooms.add(room);
+                index(room);
+                record(MutationType.CREATE_ROOM, room.getRoomCode(), String.valueOf(room.getCapacity()),
+                        room.getBoard().name(), room.getSeatingArrangement().name(),
+                        String.valueOf(room.hasSharedSpeakerphone()), String.valueOf(room.hasProjector()),
+                        String.valueOf(room.canGetFood()));
+            }
+        });
     }
 
     /**
@@ -173,7 +277,10 @@ public class RoomManager implements Serializable {
      * @param eventName The name of the event
      */
     public void addEvent(String roomCode, String eventName) {
-        getRoomWithCode(roomCode).addEvent(eventName);
+        writeLocked(() -> {
+            getRoomWithCode(roomCode).addEvent(eventName);
+            record(MutationType.ADD_EVENT_TO_ROOM, roomCode, eventName);
+        });
     }
 
     /**
@@ -182,6 +289,9 @@ public class RoomManager implements Serializable {
      * @param eventName The name of the event
      */
     public void removeEvent(String roomCode, String eventName) {
-        getRoomWithCode(roomCode).removeEvent(eventName);
+        writeLocked(() -> {
+            getRoomWithCode(roomCode).removeEvent(eventName);
+            record(MutationType.REMOVE_EVENT_FROM_ROOM, roomCode, eventName);
+        });
     }
 }
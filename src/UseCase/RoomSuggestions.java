@@ -6,8 +6,6 @@ import UseCase.RoomManager;
 import Util.BoardType;
 import Util.SeatingType;
 
-import java.util.Date;
-import java.util.HashSet;
 import java.util.Set;
 
 public class RoomSuggestions {
@@ -25,31 +23,15 @@ public class RoomSuggestions {
      */
     public Set<String> filterRooms(Set<String> roomCodes, BoardType board, SeatingType seating,
                                           boolean hasProjector, boolean hasSpeakerphone, boolean canGetFood, RoomManager rm) {
-        Set<String> matchedRooms = new HashSet<>();
-        for(String roomCode : roomCodes) {
-            BoardType boardType = rm.getBoardTypeOfRoom(roomCode);
-            SeatingType seatingType = rm.getSeatingTypeOfRoom(roomCode);
-            boolean projector = rm.DoesRoomHaveProjector(roomCode);
-            boolean speakerPhone = rm.DoesRoomHaveSpeakerphone(roomCode);
-            boolean food = rm.CanRoomGetFood(roomCode);
-
-            if (boardType == board && seatingType == seating && projector == hasProjector
-                    && speakerPhone == hasSpeakerphone && food == canGetFood) {
-                matchedRooms.add(roomCode);
-            }
-        }
+        Set<String> matchedRooms = rm.getRoomsWithFeatures(board, seating, hasProjector, hasSpeakerphone, canGetFood);
+        matchedRooms.retainAll(roomCodes);
 
         return matchedRooms;
     }
 
-    public Set<String> getAvailableRooms(Date[] time, RoomManager rm, EventManager em, EventValidator ev) {
-        Set<String> availableRooms = new HashSet<>();
-
-        for(String roomCode: rm.getRoomCodes()) {
-            if(ev.isRoomAvailable(roomCode, time, em, rm)) {
-                availableRooms.add(roomCode);
-            }
-        }
+    public Set<String> getAvailableRooms(long[] time, RoomManager rm, EventManager em, EventValidator ev) {
+        Set<String> availableRooms = rm.getRoomCodes();
+        availableRooms.removeAll(em.getRoomsInUse(time));
         return availableRooms;
     }
 }
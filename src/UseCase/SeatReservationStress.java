@@ -0,0 +1,131 @@
+package UseCase;
+
+import Util.PermissionLevel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// This class checks that UseCase.EventManager never lets more users into an event than its capacity, however many
+// threads sign up for it at once. In each round, 64 threads sign 64 users up for the same event at the same moment,
+// and half of the users who get a seat cancel and try for one again straight away. Afterwards the event must be
+// exactly full, every user told they got a seat must be attending and no one else, and the events of the users must
+// agree with the list of attendance.
+// Run it with "java UseCase.SeatReservationStress [rounds]"; it stops with an exception at the first round which fails.
+public class SeatReservationStress {
+
+    // The number of threads, and of users signing up in each round
+    private static final int USERS = 64;
+
+    // The number of rounds run when none is given
+    private static final int DEFAULT_ROUNDS = 300;
+
+    private static final String EVENT_NAME = "hot";
+
+    /**
+     * Runs the rounds, with the capacity of the event going from 1 up to 40 and back round again.
+     * @param args Runtime arguments of the program; optionally the number of rounds.
+     */
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROUNDS;
+
+        ExecutorService threads = Executors.newFixedThreadPool(USERS);
+        try {
+            for (int round = 0; round < rounds; round++) {
+                runRound(round, 1 + round % 40, threads);
+            }
+        }
+        finally {
+            threads.shutdown();
+        }
+
+        System.out.println("No event was overbooked in " + rounds + " rounds.");
+    }
+
+    // Signs every user up for an event with the given capacity at once, and checks the attendance afterwards
+    private static void runRound(int round, int capacity, ExecutorService threads)
+            throws InterruptedException, ExecutionException {
+        EventManager eventManager = new EventManager();
+        UserManager userManager = new UserManager(Collections.emptyList(), Collections.emptyList());
+
+        PartyBuilder partyBuilder = new PartyBuilder();
+        partyBuilder.buildName(EVENT_NAME);
+        partyBuilder.buildStartTime(0);
+        partyBuilder.buildRoomCode("R");
+        partyBuilder.buildCapacity(capacity);
+        eventManager.createParty(partyBuilder);
+
+        for (int i = 0; i < USERS; i++) {
+            UserBuilder userBuilder = new UserBuilder();
+            userBuilder.buildUsername(getUsername(i));
+            userBuilder.buildPassword("password");
+            userBuilder.buildPermissionLevel(PermissionLevel.ATTENDEE);
+            userManager.createNonSpeaker(userBuilder);
+        }
+
+        // holds every thread back until all of them are ready, so that they sign up as close together as possible
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> signUps = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            String username = getUsername(i);
+            boolean cancels = i % 2 == 0;
+            signUps.add(threads.submit(() -> {
+                start.await();
+                boolean signedUp = eventManager.signUpForEvent(username, EVENT_NAME, userManager);
+                if (signedUp && cancels) {
+                    eventManager.cancelSignUp(username, EVENT_NAME, userManager);
+                    signedUp = eventManager.signUpForEvent(username, EVENT_NAME, userManager);
+                }
+                return signedUp;
+            }));
+        }
+        start.countDown();
+
+        List<String> signedUp = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            if (signUps.get(i).get()) {
+                signedUp.add(getUsername(i));
+            }
+        }
+
+        check(round, eventManager, userManager, capacity, signedUp);
+    }
+
+    // Checks the attendance of the event against what each user was told
+    private static void check(int round, EventManager eventManager, UserManager userManager, int capacity,
+                              List<String> signedUp) {
+        List<String> attendees = new ArrayList<>(eventManager.getAttendeesOfEvent(EVENT_NAME));
+        Collections.sort(attendees);
+        Collections.sort(signedUp);
+
+        // every seat given up by a cancellation is taken again, if not by the same user then by whoever beat them
+        if (attendees.size() != Math.min(capacity, USERS)) {
+            fail(round, attendees.size() + " attendees for " + capacity + " seats");
+        }
+        if (!attendees.equals(signedUp)) {
+            fail(round, "attending " + attendees + " but told " + signedUp + " they got a seat");
+        }
+        if (!eventManager.isEventFull(EVENT_NAME)) {
+            fail(round, "the event is not full with " + attendees.size() + " attendees");
+        }
+        for (int i = 0; i < USERS; i++) {
+            String username = getUsername(i);
+            if (userManager.isSignedUp(username, EVENT_NAME) != attendees.contains(username)) {
+                fail(round, "the events of " + username + " do not agree with the list of attendance");
+            }
+        }
+    }
+
+    private static String getUsername(int number) {
+        return "user" + number;
+    }
+
+    private static void fail(int round, String problem) {
+        throw new IllegalStateException("Round " + round + ": " + problem + ".");
+    }
+}
@@ -4,12 +4,16 @@ import Entity.Event;
 import Entity.Room;
 import UseCase.EventManager;
 import UseCase.RoomManager;
+import Util.EventType;
+import Util.RankingMetric;
 
 import java.text.NumberFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 public class StatisticsGenerator {
     // This class generates summary statistics of the conference (use case?)
@@ -36,9 +40,9 @@ public class StatisticsGenerator {
      */
     public ArrayList<String> generateMostPopularTypeEvent(){
         // returns if a talk, party or discussion is the most popular
-        int numTalk = eventManager.getTalks().size();
-        int numDiscussion = eventManager.getDiscussions().size();
-        int numSpeakerlessEvent = eventManager.getParties().size();
+        int numTalk = eventManager.getNumberOfEvents(EventType.TALK);
+        int numDiscussion = eventManager.getNumberOfEvents(EventType.DISCUSSION);
+        int numSpeakerlessEvent = eventManager.getNumberOfEvents(EventType.PARTY);
         int maxEventNumber = Math.max(numTalk, Math.max(numDiscussion, numSpeakerlessEvent));
         ArrayList<String> popularEvents = new ArrayList<>();
         if (maxEventNumber == 0){
@@ -63,9 +67,9 @@ public class StatisticsGenerator {
      */
     public int generateNumberOfMostPopularTypeEvent(){
         //returns the number of events of the most popular event type
-        int numTalk = eventManager.getTalks().size();
-        int numDiscussion = eventManager.getDiscussions().size();
-        int numSpeakerlessEvent = eventManager.getParties().size();
+        int numTalk = eventManager.getNumberOfEvents(EventType.TALK);
+        int numDiscussion = eventManager.getNumberOfEvents(EventType.DISCUSSION);
+        int numSpeakerlessEvent = eventManager.getNumberOfEvents(EventType.PARTY);
         return Math.max(numTalk, Math.max(numDiscussion, numSpeakerlessEvent));
     }
 
@@ -86,176 +90,89 @@ public class StatisticsGenerator {
     }
 
     /**
-     * Finds the most popular event(s) (based on attendance size)
-     * @return A list of event names
+     * Finds how full the conference is as a whole: the attendees of every event over the capacity of every event
+     * @return a double from 0 to 1, or 0 if there are no events
      */
-    public ArrayList<String> generateTop1Events(){
-        //returns the top events in the entire conference (most full events)
-        ArrayList<String> top1Events = new ArrayList<>();
-        Set<Event> events = eventManager.getEvents();
-        int maxSize = getMaxAttendee(events);
-        if (maxSize == 0) {
-            return top1Events;
-        }
-        for (Event event: events){
-            if (event.getAttendees().size() == maxSize){
-                top1Events.add(event.getName());
-            }
-        }
-        return top1Events;
-
-    }
-
-    /**
-     * Finds the second most popular event(s) (based on attendance size)
-     * @return The list of event names
-     */
-    public ArrayList<String> generateTop2Events(){
-        //returns the second most full events
-        Set<Event> allEvents = eventManager.getEvents();
-        int max = getMaxAttendee(allEvents);
-        Set<Event> notTop1Event = getEventsWithSizeLessThan(allEvents, max);
-        int secondMax = getMaxAttendee(notTop1Event);
-        ArrayList<String> top2Events = new ArrayList<>();
-        if (secondMax == 0){
-            return top2Events;
-        }
-        for (Event event: notTop1Event){
-            if (event.getAttendees().size() == secondMax){
-                top2Events.add(event.getName());
-            }
-        }
-        return top2Events;
-    }
-
-    /**
-     * Finds the third most popular event(s) (based on attendance size)
-     * @return The list of event names
-     */
-    public ArrayList<String> generateTop3Events(){
-        //returns the third most full events
-        Set<Event> allEvents = eventManager.getEvents();
-        int max = getMaxAttendee(allEvents);
-        Set<Event> notTop1Event = getEventsWithSizeLessThan(allEvents, max);
-        int secondMax = getMaxAttendee(notTop1Event);
-        Set<Event> notTop2Event = getEventsWithSizeLessThan(notTop1Event, secondMax);
-        int thirdMax = getMaxAttendee(notTop2Event);
-        ArrayList<String> top3Events = new ArrayList<>();
-        if (thirdMax == 0){
-            return top3Events;
-        }
-        for (Event event: notTop2Event){
-            if (event.getAttendees().size() == thirdMax){
-                top3Events.add(event.getName());
-            }
-        }
-        return top3Events;
-
-    }
-
-    //helper method that returns the maximum amount of attendees in the set of events
-    private int getMaxAttendee(Set<Event> events){
-        int max = 0;
-        for (Event event: events){
-            if (event.getAttendees().size() > max){
-                max = event.getAttendees().size();
-            }
-        }
-        return max;
-    }
-
-    //helper method that returns a set of events with attendees less than a given size
-    private Set<Event> getEventsWithSizeLessThan(Set<Event> events, int size){
-        Set<Event> newList = new HashSet<>();
-        for(Event event: events){
-            if (event.getAttendees().size() < size){
-                newList.add(event);
-            }
+    public double generateOverallFullStatistic(){
+        int capacity = eventManager.getTotalCapacity();
+        if (capacity == 0){
+            return 0;
         }
-        return newList;
+        return eventManager.getNumberOfAttendees() / (double)capacity;
     }
 
     /**
-     * Finds the most popular room(s) (based on number of events held in that room)
-     * @return The list of Entity.Room codes
+     * Ranks the events, rooms or speakers of the conference, in one pass over them. Everything with the same figure
+     * shares a place, so there may be more than k names in total; anything whose figure is 0 is left out.
+     * @param k The number of places to rank
+     * @param metric What is being ranked, and by which figure: events by attendance size or by how full they are,
+     *               rooms by the number of events held in them, or speakers by the attendees of all their events
+     * @return The names in each place, from first to kth (or fewer places, if there are not enough distinct figures)
      */
-    public ArrayList<String> generateTop1Rooms(){
-        //returns the top 1 rooms in the entire conference (most used rooms)
-        Set<Room> rooms = roomManager.getRooms();
-        int max = getMaxEvents(rooms);
-        ArrayList<String> top1Rooms = new ArrayList<>();
-        if (max == 0){
-            return top1Rooms;
-        }
-        for (Room room: rooms){
-            if (room.getEvents().size() == max){
-                top1Rooms.add(room.getRoomCode());
+    public ArrayList<ArrayList<String>> generateTopK(int k, RankingMetric metric){
+        Ranking ranking = new Ranking(k);
+        switch (metric){
+            case EVENT_ATTENDANCE:
+                for (Event event: eventManager.getEvents()){
+                    ranking.offer(event.getName(), event.getAttendees().size());
+                }
+                break;
+            case EVENT_FULLNESS:
+                for (Event event: eventManager.getEvents()){
+                    ranking.offer(event.getName(), event.getAttendees().size() / (double)event.getCapacity());
+                }
+                break;
+            case ROOM_EVENTS:
+                for (Room room: roomManager.getRooms()){
+                    ranking.offer(room.getRoomCode(), room.getEvents().size());
+                }
+                break;
+            case SPEAKER_AUDIENCE:
+                Map<String, Integer> audiences = new HashMap<>();
+                for (Event event: eventManager.getEvents()){
+                    for (String speaker: eventManager.getSpeakersAtEvent(event.getName())){
+                        audiences.merge(speaker, event.getAttendees().size(), Integer::sum);
+                    }
+                }
+                for (Map.Entry<String, Integer> audience: audiences.entrySet()){
+                    ranking.offer(audience.getKey(), audience.getValue());
+                }
+                break;
+        }
+        return ranking.getPlaces();
+    }
+
+    // The k highest distinct figures offered so far, each with the names which have that figure. Only k figures are
+    // ever kept, the lowest of which is dropped when a higher one comes along, so offering n names takes O(n log k).
+    private static class Ranking {
+        private final int k;
+        private final TreeMap<Double, ArrayList<String>> places = new TreeMap<>();
+
+        Ranking(int k){
+            this.k = k;
+        }
+
+        void offer(String name, double figure){
+            if (k <= 0 || figure <= 0){
+                return;
             }
-        }
-        return top1Rooms;
-    }
-
-    /**
-     * Finds the second most popular room(s) (based on number of events held in that room)
-     * @return The list of Entity.Room codes
-     */
-    public ArrayList<String> generateTop2Rooms(){
-        //returns the top 2  rooms in the entire conference (second most used rooms)
-        Set<Room> allRooms = roomManager.getRooms();
-        Set<Room> notTop1Rooms = otherRooms(allRooms, generateTop1Rooms());
-        int secondMax = getMaxEvents(notTop1Rooms);
-        ArrayList<String> top2Rooms = new ArrayList<>();
-        if (secondMax == 0){
-            return top2Rooms;
-        }
-        for (Room room: notTop1Rooms){
-            if (room.getEvents().size() == secondMax){
-                top2Rooms.add(room.getRoomCode());
+            if (places.size() == k && figure < places.firstKey()){
+                return;
             }
-        }
-        return top2Rooms;
-    }
-
-    /**
-     * Find the third most popular room(s) (based on number of events being held in that room)
-     * @return The list of Entity.Room codes
-     */
-    public ArrayList<String> generateTop3Rooms(){
-        Set<Room> allRooms = roomManager.getRooms();
-        ArrayList<String> top1Top2Rooms = new ArrayList<>(generateTop1Rooms());
-        top1Top2Rooms.addAll(generateTop2Rooms());
-        Set<Room> notTop2Rooms = otherRooms(allRooms, top1Top2Rooms);
-        int thirdMax = getMaxEvents(notTop2Rooms);
-        ArrayList<String> top3Rooms = new ArrayList<>();
-        if (thirdMax == 0){
-            return top3Rooms;
-        }
-        for (Room room: notTop2Rooms){
-            if (room.getEvents().size() == thirdMax){
-                top3Rooms.add(room.getRoomCode());
+            places.computeIfAbsent(figure, f -> new ArrayList<>()).add(name);
+            if (places.size() > k){
+                places.pollFirstEntry();
             }
         }
-        return top3Rooms;
-    }
 
-    //helper method that returns the maximum amount of events held in the set of rooms
-    private int getMaxEvents(Set<Room> rooms){
-        int max = 0;
-        for (Room room: rooms){
-            if (room.getEvents().size() > max){
-                max = room.getEvents().size();
+        ArrayList<ArrayList<String>> getPlaces(){
+            ArrayList<ArrayList<String>> ranked = new ArrayList<>();
+            for (ArrayList<String> names: places.descendingMap().values()){
+                Collections.sort(names);
+                ranked.add(names);
             }
+            return ranked;
         }
-        return max;
-    }
-
-    //returns the set of rooms except the ones in the array list
-    private Set<Room> otherRooms(Set<Room> rooms, ArrayList<String> roomCodes){
-        Set<Room> newRooms = new HashSet<>(rooms);
-        for (String roomCode: roomCodes) {
-            newRooms.removeIf(room -> room.getRoomCode().equals(roomCode));
-        }
-        return newRooms;
     }
 
     /**
@@ -264,12 +181,8 @@ public class StatisticsGenerator {
      */
     public double generateAverageAttendee(){
         //returns the average number of attendees for any given day
-        Set<Event> events = eventManager.getEvents();
-        int attendees = 0;
-        for (Event event:events){
-            attendees += event.getAttendees().size();
-        }
-        double days = getNumberOfDays(events);
+        int attendees = eventManager.getNumberOfAttendees();
+        double days = eventManager.getNumberOfDays();
         if (attendees == 0 || days == 0){
             return 0;
         } else {
@@ -284,9 +197,8 @@ public class StatisticsGenerator {
      */
     public double generateAverageEvent(){
         //returns the average number of events held a day
-        Set<Event> events = eventManager.getEvents();
-        int numEvents = events.size();
-        double days = getNumberOfDays(events);
+        int numEvents = eventManager.getNumberOfEvents();
+        double days = eventManager.getNumberOfDays();
         if (numEvents == 0 || days == 0) {
             return 0;
         }
@@ -294,19 +206,4 @@ public class StatisticsGenerator {
             return numEvents/days;
         }
     }
-
-    //helper method to find the number of days that the conference is held
-    private double getNumberOfDays(Set<Event> events){
-        ArrayList<String> dates = new ArrayList<>();
-        Calendar calendar = Calendar.getInstance();
-        for (Event event: events){
-            calendar.setTime(event.getDateAndTime());
-            String date = calendar.get(Calendar.DAY_OF_YEAR) + " " + calendar.get(Calendar.DAY_OF_MONTH)
-                    + " " + calendar.get(Calendar.DATE);
-            if (!dates.contains(date)){
-                dates.add(date);
-            }
-        }
-        return dates.size();
-    }
 }
@@ -27,9 +27,17 @@ public class TalkBuilder extends EventBuilder {
         this.speaker = speaker;
     }
 
+    /**
+     * Fetches the speaker of the builder
+     * @return The name of the speaker giving the talk
+     */
+    public String getSpeaker() {
+        return speaker;
+    }
+
     @Override
     public Talk getInstance() {
-        Talk talk = new Talk(name, dateAndTime, roomCode, speaker, capacity);
+        Talk talk = new Talk(name, startTime, roomCode, speaker, capacity);
         talk.setVipEvent(isVip);
 
         return talk;
@@ -3,12 +3,15 @@ package UseCase;
 import Entity.Talk;
 
 import java.io.Serializable;
-import java.util.Calendar;
-import java.util.Date;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
 public class TalkManager implements Serializable {
+
+    // Pinned, so that files saved by earlier versions can still be read
+    private static final long serialVersionUID = -4587251673444625147L;
+
     // list of talks
     private Set<Talk> talks;
 
@@ -19,6 +22,14 @@ public class TalkManager implements Serializable {
         talks = new HashSet<>();
     }
 
+    /**
+     * Recreates a UseCase.TalkManager holding the given talks
+     * @param talks The talks to be managed
+     */
+    public TalkManager(Collection<Talk> talks) {
+        this.talks = new HashSet<>(talks);
+    }
+
     /**
      * Fetches all of the talks of this UseCase.TalkManager
      * @return The list of talks
@@ -80,9 +91,13 @@ public class TalkManager implements Serializable {
     /**
      * Creates a Entity.Talk from the given UseCase.TalkBuilder
      * @param talkBuilder The UseCase.TalkBuilder to be used
+     * @return The new talk
      */
-    public void createTalk(TalkBuilder talkBuilder) {
-        talks.add(talkBuilder.getInstance());
+    public Talk createTalk(TalkBuilder talkBuilder) {
+        Talk talk = talkBuilder.getInstance();
+        talks.add(talk);
+
+        return talk;
     }
 
     /**
@@ -108,19 +123,17 @@ public class TalkManager implements Serializable {
     public boolean assignSpeaker(String talkName, String speakerName, UserManager userManager) {
         if (userManager.hasSpeaker(speakerName)) {
             Talk talk = getTalkWithName(talkName);
-            Date[] time = new Date[2];
-            time[0] = talk.getDateAndTime();
-            time[1] = getOneHourLater(time[0]);
+            long[] time = {talk.getStartTime(), talk.getEndTime()};
 
             EventValidator ev = new EventValidator();
 
             if (ev.isSpeakerAvailable(speakerName, time, userManager)) {
                 String originalSpeaker = talk.getSpeakerUsername();
-                userManager.getSpeaker(originalSpeaker).unassignEvent(talkName);
+                userManager.unassignEventFromSpeaker(originalSpeaker, talkName);
 
                 talk.setSpeakerUsername(speakerName);
 
-                userManager.getSpeaker(speakerName).assignEvent(talkName, time);
+                userManager.assignEventToSpeaker(speakerName, talkName, time);
 
                 return true;
             }
@@ -128,17 +141,4 @@ public class TalkManager implements Serializable {
 
         return false;
     }
-
-    /**
-     * Helper method which creates a Date object with a time one hour later than startTime
-     * @param startTime - the returned Date object will be one hour after this time
-     * @return - a Date object one hour after starTime
-     */
-    private Date getOneHourLater(Date startTime) {
-        Calendar c = Calendar.getInstance();         // need Calendar to add time, not supported in Date class
-        c.setTime(startTime);                       // convert Date to Calendar
-        c.add(Calendar.HOUR, 1);
-
-        return c.getTime();                         //return new Date object set to 1 hour later
-    }
 }
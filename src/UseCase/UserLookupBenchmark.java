@@ -0,0 +1,144 @@
+package UseCase;
+
+import Entity.Speaker;
+import Entity.User;
+import Util.PermissionLevel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// This class times looking users up in a UseCase.UserManager, to show that the cost of a lookup stays flat as the
+// number of users grows. For each size, a tenth of the users being speakers, it times building the manager from the
+// users as loading does (which builds the indexes) and then the same number of getUser, hasUser, hasSpeaker and
+// getSpeaker lookups of random usernames, a quarter of which belong to no one, printing the average cost of each.
+// Run it with "java UseCase.UserLookupBenchmark [lookups]"; it stops with an exception if a lookup gives a wrong answer.
+public class UserLookupBenchmark {
+
+    // The numbers of users looked up among
+    private static final int[] SIZES = {1000, 10000, 100000};
+
+    // The number of lookups of each kind timed when none is given
+    private static final int DEFAULT_LOOKUPS = 100000;
+
+    // How many rounds of lookups are made before timing starts, so that only the last is timed
+    private static final int ROUNDS = 5;
+
+    /**
+     * Times the lookups in a UseCase.UserManager of each size.
+     * @param args Runtime arguments of the program; optionally the number of lookups of each kind.
+     */
+    public static void main(String[] args) {
+        int lookups = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_LOOKUPS;
+
+        System.out.println("Average cost of " + lookups + " lookups of each kind:");
+        for (int size : SIZES) {
+            run(size, lookups);
+        }
+    }
+
+    // Times the lookups among the given number of users
+    private static void run(int size, int lookups) {
+        List<User> nonSpeakers = new ArrayList<>();
+        List<Speaker> speakers = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (isSpeaker(i)) {
+                SpeakerBuilder speakerBuilder = new SpeakerBuilder();
+                buildUser(speakerBuilder, i, PermissionLevel.SPEAKER);
+                speakers.add(speakerBuilder.getInstance());
+            }
+            else {
+                UserBuilder userBuilder = new UserBuilder();
+                buildUser(userBuilder, i, PermissionLevel.ATTENDEE);
+                nonSpeakers.add(userBuilder.getInstance());
+            }
+        }
+
+        long start = System.nanoTime();
+        UserManager userManager = new UserManager(nonSpeakers, speakers);
+        long load = System.nanoTime() - start;
+
+        // the numbers from size up belong to no one
+        Random random = new Random(size);
+        int[] numbers = new int[lookups];
+        String[] usernames = new String[lookups];
+        for (int i = 0; i < lookups; i++) {
+            numbers[i] = random.nextInt(size + size / 3);
+            usernames[i] = getUsername(numbers[i]);
+        }
+
+        long getUser = 0;
+        long hasUser = 0;
+        long hasSpeaker = 0;
+        long getSpeaker = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            getUser = timeGetUser(userManager, numbers, usernames, size);
+            hasUser = timeHasUser(userManager, numbers, usernames, size);
+            hasSpeaker = timeHasSpeaker(userManager, numbers, usernames, size);
+            getSpeaker = timeGetSpeaker(userManager, numbers, usernames, size);
+        }
+
+        System.out.printf("%,7d users: loaded in %6.2f ms; getUser %5.0f ns, hasUser %5.0f ns, hasSpeaker %5.0f ns, "
+                        + "getSpeaker %5.0f ns%n", size, load / 1e6, (double) getUser / lookups,
+                (double) hasUser / lookups, (double) hasSpeaker / lookups, (double) getSpeaker / lookups);
+    }
+
+    private static long timeGetUser(UserManager userManager, int[] numbers, String[] usernames, int size) {
+        long start = System.nanoTime();
+        for (int i = 0; i < usernames.length; i++) {
+            User user = userManager.getUser(usernames[i]);
+            if (numbers[i] < size ? user == null || !user.getUsername().equals(usernames[i]) : user != null) {
+                fail("getUser", usernames[i]);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long timeHasUser(UserManager userManager, int[] numbers, String[] usernames, int size) {
+        long start = System.nanoTime();
+        for (int i = 0; i < usernames.length; i++) {
+            if (userManager.hasUser(usernames[i]) != numbers[i] < size) {
+                fail("hasUser", usernames[i]);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long timeHasSpeaker(UserManager userManager, int[] numbers, String[] usernames, int size) {
+        long start = System.nanoTime();
+        for (int i = 0; i < usernames.length; i++) {
+            if (userManager.hasSpeaker(usernames[i]) != (numbers[i] < size && isSpeaker(numbers[i]))) {
+                fail("hasSpeaker", usernames[i]);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long timeGetSpeaker(UserManager userManager, int[] numbers, String[] usernames, int size) {
+        long start = System.nanoTime();
+        for (int i = 0; i < usernames.length; i++) {
+            if ((userManager.getSpeaker(usernames[i]) != null) != (numbers[i] < size && isSpeaker(numbers[i]))) {
+                fail("getSpeaker", usernames[i]);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void buildUser(UserBuilder userBuilder, int number, PermissionLevel permissionLevel) {
+        userBuilder.buildUsername(getUsername(number));
+        userBuilder.buildPassword("password");
+        userBuilder.buildPermissionLevel(permissionLevel);
+    }
+
+    private static boolean isSpeaker(int number) {
+        return number % 10 == 0;
+    }
+
+    private static String getUsername(int number) {
+        return "user" + number;
+    }
+
+    private static void fail(String lookup, String username) {
+        throw new IllegalStateException(lookup + " gave the wrong answer for " + username + ".");
+    }
+}
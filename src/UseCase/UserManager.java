@@ -2,19 +2,39 @@ package UseCase;
 
 import Entity.Speaker;
 import Entity.User;
+import Util.MutationType;
 import Util.PermissionLevel;
 
-import java.io.Serializable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.AbstractMap;
 import java.util.Collection;
-import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+// Any number of threads can use a UseCase.UserManager at once. Users are created and removed while nothing else uses
+// the manager, and the events of each user change under the lock of that user.
+public class UserManager extends JournaledManager {
+    // The same as before the managers were journaled, so that files saved by those versions can still be read
+    private static final long serialVersionUID = -8081228437263187155L;
 
-public class UserManager implements Serializable {
     // The set of users being managed
     private Set<User> nonSpeakers;
     private Set<Speaker> speakers;
 
+    // The same users by username; built from the sets above when this manager is created or deserialized, so that
+    // threads sharing the manager never race to build them
+    private transient Map<String, User> nonSpeakerIndex;
+    private transient Map<String, Speaker> speakerIndex;
+
+    // The times each speaker speaks at, by username, and the times every speaker speaks at, by username and event
+    // name; built from the schedules of the speakers along with the indexes above
+    private transient Map<String, IntervalIndex<String>> speakerSchedules;
+    private transient IntervalIndex<Map.Entry<String, String>> speakerTimeline;
+
 
     /**
      * Creates a new empty UseCase.UserManager instance.
@@ -31,7 +51,85 @@ public class UserManager implements Serializable {
         userBuilder.buildPermissionLevel(PermissionLevel.ORGANIZER);
 
         createNonSpeaker(userBuilder);
+        buildIndexes();
+    }
+
+    /**
+     * Recreates a UseCase.UserManager holding the given users, such as ones loaded from a snapshot.
+     * No default admin user is created.
+     * @param nonSpeakers The users who are not speakers
+     * @param speakers The speakers
+     */
+    public UserManager(Collection<User> nonSpeakers, Collection<Speaker> speakers) {
+        this.nonSpeakers = new HashSet<>(nonSpeakers);
+        this.speakers = new HashSet<>(speakers);
+        buildIndexes();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        buildIndexes();
+    }
 
+    // Builds every index which is not built yet
+    private void buildIndexes() {
+        getNonSpeakerIndex();
+        getSpeakerSchedules();
+    }
+
+    // Fetches the index of non-speakers by username, building it if this is the first time it is needed
+    private Map<String, User> getNonSpeakerIndex() {
+        if (nonSpeakerIndex == null) {
+            nonSpeakerIndex = new HashMap<>();
+            for (User nonSpeaker : nonSpeakers) {
+                nonSpeakerIndex.put(nonSpeaker.getUsername(), nonSpeaker);
+            }
+        }
+
+        return nonSpeakerIndex;
+    }
+
+    // Fetches the index of speakers by username, building it if this is the first time it is needed
+    private Map<String, Speaker> getSpeakerIndex() {
+        if (speakerIndex == null) {
+            speakerIndex = new HashMap<>();
+            for (Speaker speaker : speakers) {
+                speakerIndex.put(speaker.getUsername(), speaker);
+            }
+        }
+
+        return speakerIndex;
+    }
+
+    // Fetches the schedule of each speaker, building them and the timeline if this is the first time they are needed
+    private Map<String, IntervalIndex<String>> getSpeakerSchedules() {
+        if (speakerSchedules == null) {
+            speakerSchedules = new HashMap<>();
+            speakerTimeline = new IntervalIndex<>();
+            for (Speaker speaker : getSpeakerIndex().values()) {
+                for (Map.Entry<String, long[]> engagement : speaker.getSchedule().entrySet()) {
+                    schedule(speaker.getUsername(), engagement.getKey(), engagement.getValue());
+                }
+            }
+        }
+
+        return speakerSchedules;
+    }
+
+    // Adds a time a speaker speaks at to the schedule of the speaker and to the timeline
+    private void schedule(String speakerName, String eventName, long[] time) {
+        speakerSchedules.computeIfAbsent(speakerName, name -> new IntervalIndex<>())
+                .add(eventName, time[0], time[1]);
+        speakerTimeline.add(new AbstractMap.SimpleImmutableEntry<>(speakerName, eventName), time[0], time[1]);
+    }
+
+    // Removes a time a speaker speaks at from the schedule of the speaker and from the timeline
+    private void unschedule(String speakerName, String eventName) {
+        IntervalIndex<String> speakerSchedule = speakerSchedules.get(speakerName);
+        if (speakerSchedule != null) {
+            speakerSchedule.remove(eventName);
+        }
+        speakerTimeline.remove(new AbstractMap.SimpleImmutableEntry<>(speakerName, eventName));
     }
 
 
@@ -40,11 +138,13 @@ public class UserManager implements Serializable {
      * @return The Users of this UseCase.UserManager.
      */
     public Set<User> getUsers() {
-        Set<User> allUsers = new HashSet<>();
-        allUsers.addAll(nonSpeakers);
-        allUsers.addAll(speakers);
+        return readLocked(() -> {
+            Set<User> allUsers = new HashSet<>();
+            allUsers.addAll(nonSpeakers);
+            allUsers.addAll(speakers);
 
-        return allUsers;
+            return allUsers;
+        });
     }
 
     /**
@@ -52,7 +152,7 @@ public class UserManager implements Serializable {
      * @return The Speakers of this UseCase.UserManager.
      */
     public Set<Speaker> getSpeakers() {
-        return speakers;
+        return readLocked(() -> new HashSet<>(speakers));
     }
 
     /**
@@ -60,13 +160,12 @@ public class UserManager implements Serializable {
      * @return The set of usernames
      */
     public Set<String> getUserNames() {
-        Set<String> usernames = new HashSet<>();
-
-        for (User user : getUsers()) {
-            usernames.add(user.getUsername());
-        }
+        return readLocked(() -> {
+            Set<String> usernames = new HashSet<>(getNonSpeakerIndex().keySet());
+            usernames.addAll(getSpeakerIndex().keySet());
 
-        return usernames;
+            return usernames;
+        });
     }
 
     /**
@@ -74,13 +173,7 @@ public class UserManager implements Serializable {
      * @return The set of usernames.
      */
     public Set<String> getSpeakerNames() {
-        Set<String> usernames = new HashSet<>();
-
-        for (Speaker speaker: getSpeakers()) {
-            usernames.add(speaker.getUsername());
-        }
-
-        return usernames;
+        return readLocked(() -> new HashSet<>(getSpeakerIndex().keySet()));
     }
 
     /**
@@ -88,12 +181,23 @@ public class UserManager implements Serializable {
      * @param username The username of the user to be removed.
      */
     public void removeUser(String username) {
-        if (hasSpeaker(username)){
-            speakers.remove(getSpeaker(username));
-        }
-        else if (hasNonSpeaker(username)) {
-            nonSpeakers.remove(getUser(username));
-        }
+        writeLocked(() -> {
+            if (hasSpeaker(username)){
+                Speaker speaker = getSpeakerIndex().remove(username);
+                speakers.remove(speaker);
+
+                getSpeakerSchedules();
+                for (String eventName : speaker.getSchedule().keySet()) {
+                    unschedule(username, eventName);
+                }
+                speakerSchedules.remove(username);
+            }
+            else if (hasNonSpeaker(username)) {
+                nonSpeakers.remove(getNonSpeakerIndex().remove(username));
+            }
+
+            record(MutationType.REMOVE_USER, username);
+        });
     }
 
     /**
@@ -111,13 +215,7 @@ public class UserManager implements Serializable {
      * @return True if and only if a nonSpeaker with the given username exists.
      */
     public boolean hasNonSpeaker(String username) {
-        for (User nonSpeaker : nonSpeakers) {
-            if (nonSpeaker.getUsername().equals(username)){
-                return true;
-            }
-        }
-
-        return false;
+        return readLocked(() -> getNonSpeakerIndex().containsKey(username));
     }
 
     /**
@@ -126,13 +224,7 @@ public class UserManager implements Serializable {
      * @return True if and only if a speaker with the given username exists.
      */
     public boolean hasSpeaker(String username){
-        for (Speaker speaker : speakers) {
-            if (speaker.getUsername().equals(username)) {
-                return true;
-            }
-        }
-
-        return false;
+        return readLocked(() -> getSpeakerIndex().containsKey(username));
     }
 
     /**
@@ -141,17 +233,14 @@ public class UserManager implements Serializable {
      * @return The user with the given username or null if no user has that username.
      */
     public User getUser(String username) {
-        if (hasSpeaker(username)){
-            return getSpeaker(username);
-        }
-
-        for (User nonSpeaker : nonSpeakers) {
-            if (nonSpeaker.getUsername().equals(username)) {
-                return nonSpeaker;
+        return readLocked(() -> {
+            Speaker speaker = getSpeakerIndex().get(username);
+            if (speaker != null) {
+                return speaker;
             }
-        }
 
-        return null;
+            return getNonSpeakerIndex().get(username);
+        });
     }
 
     /**
@@ -160,13 +249,7 @@ public class UserManager implements Serializable {
      * @return The speaker with the given username or null if no user has that username.
      */
     public Speaker getSpeaker(String username) {
-        for (Speaker speaker : speakers) {
-            if (speaker.getUsername().equals(username)) {
-                return speaker;
-            }
-        }
-
-        return null;
+        return readLocked(() -> getSpeakerIndex().get(username));
     }
 
     /**
@@ -175,10 +258,16 @@ public class UserManager implements Serializable {
      * @return The newly created Entity.User.
      */
     public User createNonSpeaker(UserBuilder userBuilder) {
-        User newUser = userBuilder.getInstance();
-        nonSpeakers.add(newUser);
+        return writeLocked(() -> {
+            User newUser = userBuilder.getInstance();
+            nonSpeakers.add(newUser);
+            getNonSpeakerIndex().put(newUser.getUsername(), newUser);
 
-        return newUser;
+            record(MutationType.CREATE_NON_SPEAKER, newUser.getUsername(), newUser.getPassword(),
+                    newUser.getPermissionLevel().name());
+
+            return newUser;
+        });
     }
 
     /**
@@ -187,10 +276,20 @@ public class UserManager implements Serializable {
      * @return The newly created Entity.Speaker.
      */
     public Speaker createSpeaker(SpeakerBuilder speakerBuilder) {
-        Speaker newSpeaker = speakerBuilder.getInstance();
-        speakers.add(newSpeaker);
+        return writeLocked(() -> {
+            Speaker newSpeaker = speakerBuilder.getInstance();
+            speakers.add(newSpeaker);
+            getSpeakerIndex().put(newSpeaker.getUsername(), newSpeaker);
+            getSpeakerSchedules();
+            for (Map.Entry<String, long[]> engagement : newSpeaker.getSchedule().entrySet()) {
+                schedule(newSpeaker.getUsername(), engagement.getKey(), engagement.getValue());
+            }
+
+            record(MutationType.CREATE_SPEAKER, newSpeaker.getUsername(), newSpeaker.getPassword(),
+                    newSpeaker.getPermissionLevel().name());
 
-        return newSpeaker;
+            return newSpeaker;
+        });
     }
 
     /**
@@ -200,13 +299,9 @@ public class UserManager implements Serializable {
      * @return True if and only if the Entity.User with username 'username' is signed up for the event with name 'eventName'.
      */
     public boolean isSignedUp(String username, String eventName) {
-        if (hasUser(username)) {
-            User currUser = getUser(username);
-
-            return currUser.isSignedUp(eventName);
-        }
+        User currUser = getUser(username);
 
-        return false;
+        return currUser != null && currUser.isSignedUp(eventName);
     }
 
     /**
@@ -215,11 +310,21 @@ public class UserManager implements Serializable {
      * @param eventName The name of the Entity.Event.
      */
     public void addEvent(String username, String eventName) {
-        if (hasUser(username)) {
+        readLocked(() -> {
             User currUser = getUser(username);
-
-            currUser.addEvent(eventName);
-        }
+            if (currUser != null) {
+                Lock lock = getPartLock(username);
+                lock.lock();
+                try {
+                    currUser.addEvent(eventName);
+                    record(MutationType.ADD_EVENT_TO_USER, username, eventName);
+                }
+                finally {
+                    lock.unlock();
+                }
+            }
+            return null;
+        });
     }
 
     /**
@@ -228,13 +333,23 @@ public class UserManager implements Serializable {
      * @param eventName The name of the Entity.Event.
      */
     public void removeEvent(String username, String eventName) {
-        if (hasUser(username)) {
+        readLocked(() -> {
             User currUser = getUser(username);
-
-            if (currUser.isSignedUp(eventName)) {
-                currUser.removeEvent(eventName);
+            if (currUser != null) {
+                Lock lock = getPartLock(username);
+                lock.lock();
+                try {
+                    if (currUser.isSignedUp(eventName)) {
+                        currUser.removeEvent(eventName);
+                        record(MutationType.REMOVE_EVENT_FROM_USER, username, eventName);
+                    }
+                }
+                finally {
+                    lock.unlock();
+                }
             }
-        }
+            return null;
+        });
     }
 
     /**
@@ -243,11 +358,9 @@ public class UserManager implements Serializable {
      * @return A collection of all the events the user is signed up for.
      */
     public Collection<String> getEvents(String username) {
-        if (hasUser(username)) {
-            return getUser(username).getEventList();
-        }
+        User user = getUser(username);
 
-        return null;
+        return user == null ? null : user.getEventList();
     }
 
     /**
@@ -256,11 +369,9 @@ public class UserManager implements Serializable {
      * @return The permission level of the user.
      */
     public PermissionLevel getPermissionLevel(String username) {
-        if (hasUser(username)) {
-            return getUser(username).getPermissionLevel();
-        }
+        User user = getUser(username);
 
-        return null;
+        return user == null ? null : user.getPermissionLevel();
     }
 
     /**
@@ -269,12 +380,10 @@ public class UserManager implements Serializable {
      * @return The collection of event names which are hosted by the given speaker.
      */
     public Collection<String> getHostedEvents(String speakerName) {
-        if (hasSpeaker(speakerName)){
-            Speaker speaker = getSpeaker(speakerName);
-            return speaker.getSchedule().keySet();
-        } else {
-            return null;
-        }
+        return readLocked(() -> {
+            Speaker speaker = getSpeakerIndex().get(speakerName);
+            return speaker == null ? null : new HashSet<>(speaker.getSchedule().keySet());
+        });
     }
 
     /**
@@ -282,8 +391,12 @@ public class UserManager implements Serializable {
      * @param speakerName The name of the speaker
      * @param eventName The name of the event
      */
-    public void addEventToSpeaker(String speakerName, String eventName, Date[] timeOfSpeech) {
-        getSpeaker(speakerName).assignEvent(eventName, timeOfSpeech);
+    public void addEventToSpeaker(String speakerName, String eventName, long[] timeOfSpeech) {
+        writeLocked(() -> {
+            assignEventToSpeaker(speakerName, eventName, timeOfSpeech);
+            record(MutationType.ADD_EVENT_TO_SPEAKER, speakerName, eventName, String.valueOf(timeOfSpeech[0]),
+                    String.valueOf(timeOfSpeech[1]));
+        });
     }
 
     /**
@@ -292,7 +405,52 @@ public class UserManager implements Serializable {
      * @param eventName The name of the event
      */
     public void removeEventFromSpeaker(String speakerName, String eventName) {
-        getSpeaker(speakerName).unassignEvent(eventName);
+        writeLocked(() -> {
+            unassignEventFromSpeaker(speakerName, eventName);
+            record(MutationType.REMOVE_EVENT_FROM_SPEAKER, speakerName, eventName);
+        });
+    }
+
+    /**
+     * Adds an event to the schedule of a speaker without recording it, for use by the managers of the events, which
+     * record the change themselves
+     * @param speakerName The name of the speaker
+     * @param eventName The name of the event
+     * @param timeOfSpeech The beginning and end of the speech, in milliseconds since the epoch
+     */
+    void assignEventToSpeaker(String speakerName, String eventName, long[] timeOfSpeech) {
+        writeLocked(() -> {
+            getSpeakerIndex().get(speakerName).assignEvent(eventName, timeOfSpeech);
+            getSpeakerSchedules();
+            schedule(speakerName, eventName, timeOfSpeech);
+        });
+    }
+
+    /**
+     * Removes an event from the schedule of a speaker without recording it, for use by the managers of the events,
+     * which record the change themselves
+     * @param speakerName The name of the speaker
+     * @param eventName The name of the event
+     */
+    void unassignEventFromSpeaker(String speakerName, String eventName) {
+        writeLocked(() -> {
+            getSpeakerIndex().get(speakerName).unassignEvent(eventName);
+            getSpeakerSchedules();
+            unschedule(speakerName, eventName);
+        });
+    }
+
+    /**
+     * Checks whether a speaker speaks at no point in the given time interval
+     * @param speakerName The name of the speaker
+     * @param time The beginning and end of the time interval, in milliseconds since the epoch
+     * @return True if and only if none of the speaker's speeches begins before time[1] and ends after time[0]
+     */
+    public boolean isSpeakerFree(String speakerName, long[] time) {
+        return readLocked(() -> {
+            IntervalIndex<String> speakerSchedule = getSpeakerSchedules().get(speakerName);
+            return speakerSchedule == null || !speakerSchedule.overlaps(time[0], time[1]);
+        });
     }
 
     /**
@@ -300,15 +458,16 @@ public class UserManager implements Serializable {
      * @param time find avaliable speakers during this time
      * @return String list of all avaliable speakers
      */
-    public Collection<String> getAvailableSpeakers(Date[] time) {
-        EventValidator ev = new EventValidator();
-        Set<String> availableSpeakers = new HashSet<>();
-        for(String speaker: getSpeakerNames()) {
-            if(ev.isSpeakerAvailable(speaker, time, this)) {
-                availableSpeakers.add(speaker);
+    public Collection<String> getAvailableSpeakers(long[] time) {
+        return readLocked(() -> {
+            Set<String> availableSpeakers = new HashSet<>(getSpeakerIndex().keySet());
+
+            // one pass over the part of the timeline which can overlap the time, rather than one check per speaker
+            for (Map.Entry<String, String> engagement : speakerTimeline.getOverlapping(time[0], time[1])) {
+                availableSpeakers.remove(engagement.getKey());
             }
-        }
-        return availableSpeakers;
+            return availableSpeakers;
+        });
     }
 
 }
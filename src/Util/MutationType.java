@@ -0,0 +1,14 @@
+package Util;
+
+public enum MutationType {
+    CREATE_NON_SPEAKER, CREATE_SPEAKER, REMOVE_USER, ADD_EVENT_TO_USER, REMOVE_EVENT_FROM_USER,
+    ADD_EVENT_TO_SPEAKER, REMOVE_EVENT_FROM_SPEAKER,
+
+    CREATE_PARTY, CREATE_TALK, CREATE_DISCUSSION, REMOVE_EVENT, ADD_USER_TO_EVENT, REMOVE_USER_FROM_EVENT,
+    ASSIGN_SPEAKER_TO_TALK, ADD_SPEAKER_TO_DISCUSSION, REMOVE_SPEAKER_FROM_DISCUSSION, CHANGE_EVENT_CAPACITY,
+
+    CREATE_ROOM, ADD_EVENT_TO_ROOM, REMOVE_EVENT_FROM_ROOM,
+
+    MESSAGE_USER, RESPOND_TO_MESSAGE, RESPOND_TO_THREAD, MARK_THREAD_AS_READ, MARK_AS_READ, MARK_AS_UNREAD,
+    ARCHIVE_MESSAGE, UNARCHIVE_MESSAGE, DELETE_MESSAGE, MESSAGE_USERS
+}
@@ -0,0 +1,5 @@
+package Util;
+
+public enum RankingMetric {
+    EVENT_ATTENDANCE, EVENT_FULLNESS, ROOM_EVENTS, SPEAKER_AUDIENCE
+}